@@ -28,9 +28,29 @@ import net.minecraft.world.item.ItemStack;
 import java.util.List;
 
 public interface IStorageControllerGui {
+    /**
+     * Stacks version of a gui that has not received a full update yet.
+     */
+    int AWAITING_FULL_UPDATE = -1;
+
     //region Getter / Setter
     void setStacks(List<ItemStack> stacks);
 
+    /**
+     * Applies a delta update to the displayed stacks.
+     *
+     * @param changedStacks the stacks whose count changed, with their new total count.
+     * @param removedStacks the stacks that are no longer in the storage controller.
+     */
+    void updateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks);
+
+    /**
+     * @return the version of the storage controller contents currently displayed, or AWAITING_FULL_UPDATE.
+     */
+    int getStacksVersion();
+
+    void setStacksVersion(int version);
+
     void setUsedSlots(int slots);
 
     void setMaxSlots(int slots);
@@ -47,10 +47,19 @@ public interface IStorageController {
     /**
      * Gets a message to update stacks, re-uses cached messages whenever possible
      *
-     * @return the stack update message.
+     * @return the stack update message containing all stacks.
      */
     MessageUpdateStacks getMessageUpdateStacks();
 
+    /**
+     * Gets a message containing only the stacks that changed since the given version. Falls back to a full update if
+     * the changes since that version are no longer known.
+     *
+     * @param knownVersion the version of the contents the client knows about, -1 if none.
+     * @return the stack update message, or null if the client is up-to-date.
+     */
+    MessageUpdateStacks getMessageUpdateStacks(int knownVersion);
+
     /**
      * @return the max slots available in this storage controller.
      */
@@ -62,7 +71,7 @@ public interface IStorageController {
     void setMaxSlots(int slots);
 
     /**
-     * @return the used up slots. Usually lazily updated when calling getStacks.
+     * @return the used up slots.
      */
     int getUsedSlots();
 
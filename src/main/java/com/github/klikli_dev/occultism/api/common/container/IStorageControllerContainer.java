@@ -41,6 +41,16 @@ public interface IStorageControllerContainer {
      * @return true if this is an item based access to the controller, false if it is a block.
      */
     boolean isContainerItem();
+
+    /**
+     * @return the version of the storage controller contents last sent to the client, -1 if none was sent yet.
+     */
+    int getSyncedStacksVersion();
+
+    /**
+     * @param version the version of the storage controller contents last sent to the client.
+     */
+    void setSyncedStacksVersion(int version);
     //endregion Getter / Setter
 
     //region Methods
@@ -23,15 +23,14 @@
 package com.github.klikli_dev.occultism.client.divination;
 
 import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.item.tool.DivinationRodItem;
 import com.github.klikli_dev.occultism.integration.theurgy.TheurgyIntegration;
-import com.github.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.phys.Vec3;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -41,46 +40,50 @@ public class ScanManager {
     public static final ScanManager instance = new ScanManager();
     public static final int SCAN_DURATION_TICKS = 40;
     public static final int SCAN_RADIUS_BLOCKS = 96;
+    /**
+     * The time to scan for per frame or tick, so large scan ranges are spread out instead of dropping frames.
+     */
+    public static final long SCAN_BUDGET_NANOS = 2_000_000;
     List<BlockPos> results = new ArrayList<>();
     private Scanner scanner;
-    private int scanningTicks = -1;
+    private Level scanLevel;
 
     public void beginScan(Player player, Block target) {
         this.cancelScan();
 
         this.scanner = new Scanner(target);
-        this.scanner.initialize(player, player.position(), Occultism.CLIENT_CONFIG.misc.divinationRodScanRange.get(), SCAN_DURATION_TICKS);
+        this.scanLevel = player.level;
+        this.scanner.initialize(player, player.position(), Occultism.CLIENT_CONFIG.misc.divinationRodScanRange.get());
         if(!TheurgyIntegration.isLoaded()) //only use if theurgy not used, because if it is, we use a particle effect that only goes to the closest target
             this.scanner.setHighlightAllResults(Occultism.CLIENT_CONFIG.misc.divinationRodHighlightAllResults.get());
     }
 
     public void updateScan(Player player, boolean forceFinish) {
-        final int remainingTicks = SCAN_DURATION_TICKS - this.scanningTicks;
-
-        if (remainingTicks <= 0 || this.scanner == null) {
+        if (this.scanner == null || this.scanner.isFinished()) {
             return;
         }
 
-        //if we are not forcing we simply tick once
+        //if we are not forcing we scan within our time budget
         if (!forceFinish) {
-            this.scanner.scan(result -> this.results.add(result));
-            this.scanningTicks++;
+            //stop scans the player abandoned without releasing the rod, e.g. by switching items or changing dimension
+            if (player.level != this.scanLevel || !player.isUsingItem() ||
+                    !(player.getUseItem().getItem() instanceof DivinationRodItem)) {
+                this.cancelScan();
+                return;
+            }
+
+            this.scanner.scan(result -> this.results.add(result), SCAN_BUDGET_NANOS);
             return;
         }
 
-        //when forcing we scan through all remaining tikcs at once
-        for (int i = 0; i < remainingTicks; i++) {
-            this.scanner.scan(result -> this.results.add(result));
-            this.scanningTicks++;
-        }
+        //when forcing we scan all remaining sections at once
+        this.scanner.scanAll(result -> this.results.add(result));
     }
 
     public BlockPos finishScan(Player player) {
         this.updateScan(player, true);
 
-        Vec3 scanCenter = player.position();
-        this.results
-                .sort(Comparator.comparing(result -> scanCenter.distanceToSqr(Math3DUtil.center(result))));
+        //results are streamed nearest first
         BlockPos result = !this.results.isEmpty() ? this.results.get(0) : null;
         this.cancelScan();
         return result;
@@ -88,7 +91,7 @@ public class ScanManager {
 
     public void cancelScan() {
         this.scanner = null;
+        this.scanLevel = null;
         this.results.clear();
-        this.scanningTicks = -1;
     }
 }
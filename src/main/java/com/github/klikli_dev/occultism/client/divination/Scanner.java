@@ -24,17 +24,27 @@ package com.github.klikli_dev.occultism.client.divination;
 
 import com.github.klikli_dev.occultism.Occultism;
 import net.minecraft.core.BlockPos;
-import net.minecraft.util.Mth;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.phys.Vec3;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Consumer;
 
 /**
  * Based on https://github.com/MightyPirates/Scannable
+ * <p>
+ * Scans the chunk sections within the radius in order of their distance to the center, skipping sections whose palette
+ * cannot contain the target block. Results are passed on nearest first: a result is only consumed once no unscanned
+ * section can contain a closer block.
  */
 public class Scanner {
     protected Block target;
@@ -45,16 +55,12 @@ public class Scanner {
     //radius squared for faster comparison of distance
     protected float radiusSquared;
 
-    //the max extent of the scan
-    protected BlockPos min;
-    protected BlockPos max;
-
-    //the current scanned block
-    protected int x;
-    protected int y;
-    protected int z;
-
-    private int blocksPerTick;
+    //the sections to scan, nearest first
+    protected List<ScanSection> sections = new ArrayList<>();
+    //the index of the next section to scan
+    protected int sectionIndex;
+    //results that may still be preceded by results from unscanned sections
+    protected PriorityQueue<BlockPos> pendingResults;
 
     protected boolean highlightAllResults;
 
@@ -66,20 +72,31 @@ public class Scanner {
         this.highlightAllResults = highlightAllResults;
     }
 
-    public void initialize(Player player, Vec3 center, float radius, int totalTicks) {
+    public void initialize(Player player, Vec3 center, float radius) {
         this.player = player;
         this.center = center;
         this.radius = radius;
         this.radiusSquared = this.radius * this.radius;
-        this.min = new BlockPos(center).offset(-this.radius, -this.radius, -this.radius);
-        this.max = new BlockPos(center).offset(this.radius, this.radius, this.radius);
-        this.x = this.min.getX();
-        this.y = this.min.getY() - 1;//first move next increments this to min.getY();
-        this.z = this.min.getZ();
-
-        BlockPos size = this.max.subtract(this.min);
-        int blockCount = (size.getX() + 1) * (size.getY() + 1) * (size.getZ() + 1);
-        this.blocksPerTick = Mth.ceil(blockCount / (float) totalTicks);
+        this.pendingResults = new PriorityQueue<>(Comparator.comparingDouble(this::distanceSquared));
+
+        Level level = player.level;
+        BlockPos min = new BlockPos(center).offset(-this.radius, -this.radius, -this.radius);
+        BlockPos max = new BlockPos(center).offset(this.radius, this.radius, this.radius);
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(min.getY()), level.getMinSection());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(max.getY()), level.getMaxSection() - 1);
+
+        this.sections.clear();
+        this.sectionIndex = 0;
+        for (int x = SectionPos.blockToSectionCoord(min.getX()); x <= SectionPos.blockToSectionCoord(max.getX()); x++) {
+            for (int z = SectionPos.blockToSectionCoord(min.getZ()); z <= SectionPos.blockToSectionCoord(max.getZ()); z++) {
+                for (int y = minSectionY; y <= maxSectionY; y++) {
+                    double distanceSquared = this.sectionDistanceSquared(x, y, z);
+                    if (distanceSquared <= this.radiusSquared)
+                        this.sections.add(new ScanSection(x, y, z, distanceSquared));
+                }
+            }
+        }
+        this.sections.sort(Comparator.comparingDouble(section -> section.distanceSquared));
     }
 
     public void reset() {
@@ -87,54 +104,122 @@ public class Scanner {
         this.center = null;
         this.radius = 0;
         this.radiusSquared = 0;
-        this.min = null;
-        this.max = null;
+        this.sections.clear();
+        this.sectionIndex = 0;
+        this.pendingResults = null;
     }
 
-    public void scan(Consumer<BlockPos> resultConsumer) {
-        Level level = this.player.level;
-        for (int i = 0; i < this.blocksPerTick; i++) {
-            //move to next block
-            if (!this.nextBlock(level)) {
-                return;
-            }
+    public boolean isFinished() {
+        return this.sectionIndex >= this.sections.size() && (this.pendingResults == null || this.pendingResults.isEmpty());
+    }
 
-            //check if block is within radius
-            if (this.center.distanceToSqr(this.x + 0.5, this.y + 0.5, this.z + 0.5) > this.radiusSquared) {
-                continue;
-            }
+    /**
+     * Scans sections until the given time has elapsed.
+     *
+     * @param resultConsumer consumes the results, nearest first.
+     * @param budgetNanos    the time to scan for, at least one section is scanned per call.
+     */
+    public void scan(Consumer<BlockPos> resultConsumer, long budgetNanos) {
+        long start = System.nanoTime();
+        do {
+            if (this.sectionIndex >= this.sections.size())
+                break;
+            this.scanSection(this.sections.get(this.sectionIndex++));
+        } while (System.nanoTime() - start < budgetNanos);
+
+        this.consumeResults(resultConsumer);
+    }
 
-            BlockPos pos = new BlockPos(this.x, this.y, this.z);
-            BlockState state = level.getBlockState(pos);
+    /**
+     * Scans all remaining sections.
+     *
+     * @param resultConsumer consumes the results, nearest first.
+     */
+    public void scanAll(Consumer<BlockPos> resultConsumer) {
+        while (this.sectionIndex < this.sections.size()) {
+            this.scanSection(this.sections.get(this.sectionIndex++));
+        }
+        this.consumeResults(resultConsumer);
+    }
 
-            //if this is the block we search for, consume it.
-            if (this.isValidBlock(state)) {
-                if (this.highlightAllResults) {
-                    Occultism.SELECTED_BLOCK_RENDERER.selectBlock(pos, System.currentTimeMillis() + 10000);
+    protected void scanSection(ScanSection scanSection) {
+        Level level = this.player.level;
+        LevelChunk chunk = level.getChunkSource().getChunk(scanSection.x, scanSection.z, false);
+        if (chunk == null)
+            return;
+
+        LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(scanSection.y));
+        if (section.hasOnlyAir() || !section.getStates().maybeHas(this::isValidBlock))
+            return;
+
+        int minX = SectionPos.sectionToBlockCoord(scanSection.x);
+        int minY = SectionPos.sectionToBlockCoord(scanSection.y);
+        int minZ = SectionPos.sectionToBlockCoord(scanSection.z);
+        for (int y = 0; y < SectionPos.SECTION_SIZE; y++) {
+            for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
+                for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
+                    if (!this.isValidBlock(section.getBlockState(x, y, z)))
+                        continue;
+
+                    BlockPos pos = new BlockPos(minX + x, minY + y, minZ + z);
+                    //check if block is within radius
+                    if (this.distanceSquared(pos) <= this.radiusSquared)
+                        this.pendingResults.add(pos);
                 }
-                resultConsumer.accept(pos);
             }
         }
     }
 
-    public boolean nextBlock(Level level) {
-        this.y++;
-        if (this.y > this.max.getY() || this.y >= level.getHeight()) {
-            this.y = this.min.getY();
-            this.x++;
-            if (this.x > this.max.getX()) {
-                this.x = this.min.getX();
-                this.z++;
-                if (this.z > this.max.getZ()) {
-                    this.blocksPerTick = 0;
-                    return false;
-                }
+    protected void consumeResults(Consumer<BlockPos> resultConsumer) {
+        //results closer than the next section cannot be preceded by results found later
+        double nextSectionDistanceSquared = this.sectionIndex < this.sections.size() ?
+                this.sections.get(this.sectionIndex).distanceSquared : Double.MAX_VALUE;
+        while (!this.pendingResults.isEmpty() &&
+                this.distanceSquared(this.pendingResults.peek()) <= nextSectionDistanceSquared) {
+            BlockPos pos = this.pendingResults.poll();
+            if (this.highlightAllResults) {
+                Occultism.SELECTED_BLOCK_RENDERER.selectBlock(pos, System.currentTimeMillis() + 10000);
             }
+            resultConsumer.accept(pos);
         }
-        return true;
+    }
+
+    protected double distanceSquared(BlockPos pos) {
+        return this.center.distanceToSqr(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+    }
+
+    /**
+     * Gets the squared distance from the center to the closest point of the given section.
+     */
+    protected double sectionDistanceSquared(int sectionX, int sectionY, int sectionZ) {
+        double dx = this.axisDistance(this.center.x, SectionPos.sectionToBlockCoord(sectionX));
+        double dy = this.axisDistance(this.center.y, SectionPos.sectionToBlockCoord(sectionY));
+        double dz = this.axisDistance(this.center.z, SectionPos.sectionToBlockCoord(sectionZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    protected double axisDistance(double value, int sectionMin) {
+        //block centers are the closest points we compare against
+        double min = sectionMin + 0.5;
+        double max = sectionMin + SectionPos.SECTION_SIZE - 0.5;
+        return value < min ? min - value : value > max ? value - max : 0;
     }
 
     public boolean isValidBlock(BlockState state) {
         return state.getBlock() == this.target;
     }
+
+    protected static class ScanSection {
+        protected final int x;
+        protected final int y;
+        protected final int z;
+        protected final double distanceSquared;
+
+        public ScanSection(int x, int y, int z, double distanceSquared) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.distanceSquared = distanceSquared;
+        }
+    }
 }
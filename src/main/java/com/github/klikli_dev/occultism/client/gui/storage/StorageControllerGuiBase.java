@@ -33,12 +33,12 @@ import com.github.klikli_dev.occultism.client.gui.controls.LabelWidget;
 import com.github.klikli_dev.occultism.client.gui.controls.MachineSlotWidget;
 import com.github.klikli_dev.occultism.client.gui.controls.SizedImageButton;
 import com.github.klikli_dev.occultism.common.container.storage.StorageControllerContainerBase;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.github.klikli_dev.occultism.integration.jei.JeiAccess;
 import com.github.klikli_dev.occultism.integration.jei.JeiSettings;
 import com.github.klikli_dev.occultism.network.*;
 import com.github.klikli_dev.occultism.util.InputUtil;
 import com.github.klikli_dev.occultism.util.TextUtil;
-import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.mojang.blaze3d.platform.InputConstants;
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -59,13 +59,11 @@ import net.minecraft.world.Container;
 import net.minecraft.world.ContainerListener;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.TooltipFlag;
 import net.minecraft.world.level.Level;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public abstract class StorageControllerGuiBase<T extends StorageControllerContainerBase> extends AbstractContainerScreen<T> implements IStorageControllerGui, IStorageControllerGuiContainer, ContainerListener {
@@ -76,6 +74,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     protected static final ResourceLocation BUTTONS = new ResourceLocation(Occultism.MODID, "textures/gui/buttons.png");
     protected static final String TRANSLATION_KEY_BASE = "gui." + Occultism.MODID + ".storage_controller";
     public List<ItemStack> stacks;
+    public int stacksVersion = AWAITING_FULL_UPDATE;
+    protected StorageSearchIndex searchIndex = new StorageSearchIndex();
     public List<MachineReference> linkedMachines;
     public IStorageControllerContainer storageControllerContainer;
     public int usedSlots;
@@ -186,6 +186,41 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     @Override
     public void setStacks(List<ItemStack> stacks) {
         this.stacks = stacks;
+        this.searchIndex.setStacks(stacks);
+    }
+
+    @Override
+    public void updateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks) {
+        Map<ItemStackKey, Integer> indices = new HashMap<>();
+        for (int i = 0; i < this.stacks.size(); i++) {
+            indices.put(ItemStackKey.of(this.stacks.get(i)), i);
+        }
+
+        for (ItemStack stack : changedStacks) {
+            Integer index = indices.get(ItemStackKey.of(stack));
+            if (index != null) {
+                this.stacks.set(index, stack);
+            } else {
+                indices.put(ItemStackKey.of(stack), this.stacks.size());
+                this.stacks.add(stack);
+            }
+        }
+
+        if (!removedStacks.isEmpty()) {
+            Set<ItemStackKey> removed = removedStacks.stream().map(ItemStackKey::of).collect(Collectors.toSet());
+            this.stacks.removeIf(stack -> removed.contains(ItemStackKey.of(stack)));
+        }
+        this.searchIndex.setStacks(this.stacks);
+    }
+
+    @Override
+    public int getStacksVersion() {
+        return this.stacksVersion;
+    }
+
+    @Override
+    public void setStacksVersion(int version) {
+        this.stacksVersion = version;
     }
 
     @Override
@@ -417,7 +452,7 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     @Override
     public boolean charTyped(char typedChar, int keyCode) {
         if (this.searchBar.isFocused() && this.searchBar.charTyped(typedChar, keyCode)) {
-            OccultismPackets.sendToServer(new MessageRequestStacks());
+            //search is handled client side by the search index, so no need to request stacks from the server.
             if (JeiSettings.isJeiLoaded() && JeiSettings.isJeiSearchSynced()) {
                 JeiAccess.setFilterText(this.searchBar.getValue());
             }
@@ -537,8 +572,8 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
     }
 
     protected void drawItems(PoseStack poseStack, float partialTicks, int mouseX, int mouseY) {
-        List<ItemStack> stacksToDisplay = this.applySearchToItems();
-        this.sortItemStacks(stacksToDisplay);
+        List<ItemStack> stacksToDisplay = this.searchIndex.getStacksToDisplay(this.searchBar.getValue(),
+                this.getSortType(), this.getSortDirection());
         this.buildPage(stacksToDisplay);
         this.buildItemSlots(stacksToDisplay);
         this.drawItemSlots(poseStack, mouseX, mouseY);
@@ -703,48 +738,6 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         }
     }
 
-    protected void sortItemStacks(List<ItemStack> stacksToDisplay) {
-        stacksToDisplay.sort(new Comparator<ItemStack>() {
-
-            //region Fields
-            final int direction = StorageControllerGuiBase.this.getSortDirection().isDown() ? -1 : 1;
-            //endregion Fields
-
-            //region Overrides
-            @Override
-            public int compare(ItemStack a, ItemStack b) {
-                switch (StorageControllerGuiBase.this.getSortType()) {
-                    case AMOUNT:
-                        return Integer.compare(b.getCount(), a.getCount()) * this.direction;
-                    case NAME:
-                        return a.getDisplayName().getString()
-                                .compareToIgnoreCase(b.getDisplayName().getString()) *
-                                this.direction;
-                    case MOD:
-                        return TextUtil.getModNameForGameObject(a.getItem())
-                                .compareToIgnoreCase(TextUtil.getModNameForGameObject(b.getItem())) *
-                                this.direction;
-                }
-                return 0;
-            }
-            //endregion Overrides
-        });
-    }
-
-    protected List<ItemStack> applySearchToItems() {
-        String searchText = this.searchBar.getValue();
-
-        if (!searchText.equals("")) {
-            List<ItemStack> stacksToDisplay = new ArrayList<>();
-            for (ItemStack stack : this.stacks) {
-                if (this.itemMatchesSearch(stack))
-                    stacksToDisplay.add(stack);
-            }
-            return stacksToDisplay;
-        }
-        return new ArrayList<>(this.stacks);
-    }
-
     protected List<MachineReference> applySearchToMachines() {
         String searchText = this.searchBar.getValue();
 
@@ -760,30 +753,6 @@ public abstract class StorageControllerGuiBase<T extends StorageControllerContai
         return new ArrayList<>(this.linkedMachines);
     }
 
-    protected boolean itemMatchesSearch(ItemStack stack) {
-        String searchText = this.searchBar.getValue();
-        if (searchText.startsWith("@")) {
-            String name = TextUtil.getModNameForGameObject(stack.getItem());
-            return name.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("#")) {
-            List<String> tooltip = stack.getTooltipLines(this.minecraft.player, TooltipFlag.Default.NORMAL).stream()
-                    .map(Component::getString).collect(
-                            Collectors.toList());
-            String tooltipString = Joiner.on(' ').join(tooltip).toLowerCase().trim();
-            return tooltipString.toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else if (searchText.startsWith("$")) {
-            StringBuilder tagStringBuilder = new StringBuilder();
-            stack.getTags().forEach(
-                    tag -> tagStringBuilder.append(tag.location()).append(" ")
-            );
-            return tagStringBuilder.toString().toLowerCase().contains(searchText.toLowerCase().substring(1));
-        } else {
-            //Note: If search stops working, forge may have re-implemented .getUnformattedComponentText() for translated text components
-            return stack.getDisplayName().getString().toLowerCase()
-                    .contains(searchText.toLowerCase());
-        }
-    }
-
     protected boolean machineMatchesSearch(MachineReference machine) {
         String searchText = this.searchBar.getValue();
         if (searchText.startsWith("@")) {
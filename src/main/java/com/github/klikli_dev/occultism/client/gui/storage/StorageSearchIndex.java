@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.client.gui.storage;
+
+import com.github.klikli_dev.occultism.api.common.data.SortDirection;
+import com.github.klikli_dev.occultism.api.common.data.SortType;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
+import com.github.klikli_dev.occultism.util.TextUtil;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.TooltipFlag;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Client side search and sort index for the stacks displayed in storage guis.
+ * Search texts are computed once per distinct stack and reused across stack updates, the filtered and sorted result is
+ * cached until the stacks, search text or sort settings change.
+ */
+public class StorageSearchIndex {
+
+    //region Fields
+    protected Map<ItemStackKey, SearchData> searchData = new HashMap<>();
+    protected List<Entry> entries = new ArrayList<>();
+
+    protected List<ItemStack> cachedResult;
+    protected String cachedSearchText;
+    protected SortType cachedSortType;
+    protected SortDirection cachedSortDirection;
+    //endregion Fields
+
+    //region Methods
+
+    /**
+     * Sets the stacks to search. Search data of stacks that are no longer present is discarded.
+     *
+     * @param stacks the stacks.
+     */
+    public void setStacks(List<ItemStack> stacks) {
+        Map<ItemStackKey, SearchData> searchData = new HashMap<>();
+        List<Entry> entries = new ArrayList<>(stacks.size());
+        for (ItemStack stack : stacks) {
+            ItemStackKey key = ItemStackKey.of(stack);
+            SearchData data = this.searchData.get(key);
+            if (data == null)
+                data = new SearchData(stack);
+            searchData.put(key, data);
+            entries.add(new Entry(stack, data));
+        }
+        this.searchData = searchData;
+        this.entries = entries;
+        this.cachedResult = null;
+    }
+
+    /**
+     * Gets the stacks matching the search text, sorted according to the given settings. Do not modify the result.
+     *
+     * @param searchText    the search text, may be prefixed by @ (mod), # (tooltip) or $ (tag).
+     * @param sortType      the sort type.
+     * @param sortDirection the sort direction.
+     * @return the stacks to display.
+     */
+    public List<ItemStack> getStacksToDisplay(String searchText, SortType sortType, SortDirection sortDirection) {
+        if (this.cachedResult != null && searchText.equals(this.cachedSearchText) &&
+                sortType == this.cachedSortType && sortDirection == this.cachedSortDirection) {
+            return this.cachedResult;
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        String search = searchText.toLowerCase();
+        for (Entry entry : this.entries) {
+            if (search.isEmpty() || entry.data.matches(search))
+                matches.add(entry);
+        }
+
+        int direction = sortDirection.isDown() ? -1 : 1;
+        Comparator<Entry> comparator = switch (sortType) {
+            case AMOUNT -> (a, b) -> Integer.compare(b.stack.getCount(), a.stack.getCount()) * direction;
+            case NAME -> (a, b) -> a.data.name.compareTo(b.data.name) * direction;
+            case MOD -> (a, b) -> a.data.modName.compareTo(b.data.modName) * direction;
+        };
+        matches.sort(comparator);
+
+        this.cachedResult = matches.stream().map(entry -> entry.stack).collect(Collectors.toList());
+        this.cachedSearchText = searchText;
+        this.cachedSortType = sortType;
+        this.cachedSortDirection = sortDirection;
+        return this.cachedResult;
+    }
+    //endregion Methods
+
+    protected static class Entry {
+        //region Fields
+        protected final ItemStack stack;
+        protected final SearchData data;
+        //endregion Fields
+
+        //region Initialization
+        public Entry(ItemStack stack, SearchData data) {
+            this.stack = stack;
+            this.data = data;
+        }
+        //endregion Initialization
+    }
+
+    /**
+     * The lower case texts a stack can be searched by.
+     */
+    protected static class SearchData {
+        //region Fields
+        protected final ItemStack stack;
+        protected final String name;
+        protected final String modName;
+        protected final String tags;
+        /**
+         * Tooltips are expensive to build, so they are only computed when searched for.
+         */
+        protected String tooltip;
+        //endregion Fields
+
+        //region Initialization
+        public SearchData(ItemStack stack) {
+            this.stack = stack;
+            //Note: If search stops working, forge may have re-implemented .getUnformattedComponentText() for translated text components
+            this.name = stack.getDisplayName().getString().toLowerCase();
+            this.modName = TextUtil.getModNameForGameObject(stack.getItem()).toLowerCase();
+
+            StringBuilder tagStringBuilder = new StringBuilder();
+            stack.getTags().forEach(
+                    tag -> tagStringBuilder.append(tag.location()).append(" ")
+            );
+            this.tags = tagStringBuilder.toString().toLowerCase();
+        }
+        //endregion Initialization
+
+        //region Methods
+        public boolean matches(String search) {
+            if (search.startsWith("@")) {
+                return this.modName.contains(search.substring(1));
+            } else if (search.startsWith("#")) {
+                return this.getTooltip().contains(search.substring(1));
+            } else if (search.startsWith("$")) {
+                return this.tags.contains(search.substring(1));
+            } else {
+                return this.name.contains(search);
+            }
+        }
+
+        protected String getTooltip() {
+            if (this.tooltip == null) {
+                this.tooltip = this.stack.getTooltipLines(Minecraft.getInstance().player, TooltipFlag.Default.NORMAL)
+                        .stream().map(Component::getString).collect(Collectors.joining(" ")).toLowerCase().trim();
+            }
+            return this.tooltip;
+        }
+        //endregion Methods
+    }
+}
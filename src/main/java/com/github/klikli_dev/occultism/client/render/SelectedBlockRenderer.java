@@ -36,14 +36,21 @@ import net.minecraftforge.client.event.RenderLevelStageEvent.Stage;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 import java.awt.*;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
 
 public class SelectedBlockRenderer {
 
     //region Fields
-    protected Set<SelectionInfo> selectedBlocks = new HashSet<>();
+    protected Map<BlockPos, SelectionInfo> selectedBlocks = new HashMap<>();
+    /**
+     * Selections ordered by expiry time. May contain selections that have been replaced or unselected, those are
+     * skipped when they expire.
+     */
+    protected PriorityQueue<SelectionInfo> expiryQueue =
+            new PriorityQueue<>(Comparator.comparingLong(info -> info.selectionExpireTime));
     //endregion Fields
 
     //region Methods
@@ -66,9 +73,9 @@ public class SelectedBlockRenderer {
      * @param color      the color to render the block in.
      */
     public void selectBlock(BlockPos pos, long expireTime, Color color) {
-        SelectionInfo info = new SelectionInfo(pos, expireTime, color);
-        this.selectedBlocks.remove(info);
-        this.selectedBlocks.add(info);
+        SelectionInfo info = new SelectionInfo(pos.immutable(), expireTime, color);
+        this.selectedBlocks.put(info.selectedBlock, info);
+        this.expiryQueue.add(info);
     }
 
     /**
@@ -77,7 +84,7 @@ public class SelectedBlockRenderer {
      * @param pos the position.
      */
     public void unselectBlock(BlockPos pos) {
-        this.selectedBlocks.removeIf(info -> info.selectedBlock.equals(pos));
+        this.selectedBlocks.remove(pos);
     }
 
     @SubscribeEvent
@@ -94,40 +101,47 @@ public class SelectedBlockRenderer {
         if (useAltRenderer && event.getStage() != Stage.AFTER_TRANSLUCENT_BLOCKS)
             return;
 
-        if (!this.selectedBlocks.isEmpty()) {
-            long time = System.currentTimeMillis();
-
-            for (Iterator<SelectionInfo> it = this.selectedBlocks.iterator(); it.hasNext(); ) {
-                SelectionInfo info = it.next();
-
-                if (time > info.selectionExpireTime || info.selectedBlock == null) {
-                    //remove expired or invalid selections
-                    it.remove();
-                    return;
-                } else {
-
-                    PoseStack matrixStack = event.getPoseStack();
-                    MultiBufferSource.BufferSource buffer = Minecraft.getInstance().renderBuffers().bufferSource();
-                    VertexConsumer builder = buffer.getBuffer(useAltRenderer ? OccultismRenderType.overlayLinesAlternative() : OccultismRenderType.overlayLines());
-                    matrixStack.pushPose();
-
-                    var camera = Minecraft.getInstance().gameRenderer.getMainCamera();
-                    Vec3 cameraPosition = camera.getPosition();
-                    matrixStack.translate(-cameraPosition.x, -cameraPosition.y, -cameraPosition.z);
-
-                    LevelRenderer.renderLineBox(matrixStack, builder,
-                            info.selectedBlock.getX(), info.selectedBlock.getY(), info.selectedBlock.getZ(),
-                            info.selectedBlock.getX() + 1, info.selectedBlock.getY() + 1, info.selectedBlock.getZ() + 1,
-                            info.color.getRed() / 255.0f,
-                            info.color.getGreen() / 255.0f, info.color.getBlue() / 255.0f,
-                            info.color.getAlpha() / 255.0f
-                    );
-
-                    matrixStack.popPose();
-                    RenderSystem.disableDepthTest();
-                    buffer.endBatch(); //call this instead of the rendertype specific end batch to fix wobbling
-                }
-            }
+        this.removeExpiredSelections(System.currentTimeMillis());
+        if (this.selectedBlocks.isEmpty())
+            return;
+
+        PoseStack matrixStack = event.getPoseStack();
+        MultiBufferSource.BufferSource buffer = Minecraft.getInstance().renderBuffers().bufferSource();
+        VertexConsumer builder = buffer.getBuffer(useAltRenderer ? OccultismRenderType.overlayLinesAlternative() : OccultismRenderType.overlayLines());
+        matrixStack.pushPose();
+
+        var camera = Minecraft.getInstance().gameRenderer.getMainCamera();
+        Vec3 cameraPosition = camera.getPosition();
+        matrixStack.translate(-cameraPosition.x, -cameraPosition.y, -cameraPosition.z);
+
+        //all selections go into one buffer so they are drawn in a single batch
+        for (SelectionInfo info : this.selectedBlocks.values()) {
+            LevelRenderer.renderLineBox(matrixStack, builder,
+                    info.selectedBlock.getX(), info.selectedBlock.getY(), info.selectedBlock.getZ(),
+                    info.selectedBlock.getX() + 1, info.selectedBlock.getY() + 1, info.selectedBlock.getZ() + 1,
+                    info.color.getRed() / 255.0f,
+                    info.color.getGreen() / 255.0f, info.color.getBlue() / 255.0f,
+                    info.color.getAlpha() / 255.0f
+            );
+        }
+
+        matrixStack.popPose();
+        RenderSystem.disableDepthTest();
+        buffer.endBatch(); //call this instead of the rendertype specific end batch to fix wobbling
+    }
+
+    /**
+     * Removes all selections that expired before the given time.
+     *
+     * @param time the current system time.
+     */
+    protected void removeExpiredSelections(long time) {
+        while (!this.expiryQueue.isEmpty() && time > this.expiryQueue.peek().selectionExpireTime) {
+            SelectionInfo info = this.expiryQueue.poll();
+            //only remove the selection if it has not been replaced in the meantime, SelectionInfo equality only
+            //considers the position so this needs to be an identity check
+            if (this.selectedBlocks.get(info.selectedBlock) == info)
+                this.selectedBlocks.remove(info.selectedBlock);
         }
     }
     //endregion Methods
@@ -31,14 +31,22 @@ import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.platform.Window;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.*;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 import java.util.HashSet;
@@ -47,6 +55,11 @@ import java.util.Set;
 public class ThirdEyeEffectRenderer {
 
     public static final int MAX_THIRD_EYE_DISTANCE = 10;
+    /**
+     * Scanned sections are rescanned after this many ticks to pick up otherworld blocks placed since.
+     * At most one section is rescanned per tick.
+     */
+    public static final int SECTION_RESCAN_TICKS = 40;
     public static final ResourceLocation THIRD_EYE_SHADER = new ResourceLocation(Occultism.MODID,
             "shaders/post/third_eye.json");
     public static final ResourceLocation THIRD_EYE_TEXTURE = new ResourceLocation(Occultism.MODID,
@@ -56,6 +69,13 @@ public class ThirdEyeEffectRenderer {
 
     public Set<BlockPos> uncoveredBlocks = new HashSet<>();
 
+    /**
+     * The otherworld blocks in the sections around the player, by section.
+     * Sections are scanned when they enter the third eye distance and dropped when they leave it.
+     */
+    protected Long2ObjectMap<ScannedSection> scannedSections = new Long2ObjectOpenHashMap<>();
+    protected Level scannedLevel;
+
     @SubscribeEvent
     public void onPlayerTick(TickEvent.PlayerTickEvent event) {
         if (event.player.level.isClientSide && event.player == Minecraft.getInstance().player) {
@@ -64,6 +84,17 @@ public class ThirdEyeEffectRenderer {
         }
     }
 
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        //chunks received from the server replace our uncovered block states, so their sections need to be rescanned
+        if (event.getLevel().isClientSide() && event.getLevel() == this.scannedLevel) {
+            int chunkX = event.getChunk().getPos().x;
+            int chunkZ = event.getChunk().getPos().z;
+            this.scannedSections.keySet().removeIf(
+                    (long section) -> SectionPos.x(section) == chunkX && SectionPos.z(section) == chunkZ);
+        }
+    }
+
 
     public void renderOverlay(PoseStack pose) {
         RenderSystem.enableBlend();
@@ -113,31 +144,107 @@ public class ThirdEyeEffectRenderer {
             if (state.getBlock() instanceof IOtherworldBlock) //handle replaced or removed blocks gracefully
                 level.setBlock(pos, state.setValue(IOtherworldBlock.UNCOVERED, false), 1);
         }
-        if (clear)
+        if (clear) {
             this.uncoveredBlocks.clear();
+            this.scannedSections.clear();
+        }
     }
 
     /**
      * Uncovers the otherworld blocks within MAX_THIRD_EYE_DISTANCE of the player.
+     * Only sections that entered the distance since the last call are scanned, blocks in known sections are just
+     * checked for state changes.
      *
      * @param player the player.
      * @param level  the level.
      */
     public void uncoverBlocks(Player player, Level level, OtherworldBlockTier tier) {
+        if (level != this.scannedLevel) {
+            this.scannedSections.clear();
+            this.scannedLevel = level;
+        }
+
         BlockPos origin = player.blockPosition();
-        BlockPos.betweenClosed(origin.offset(-MAX_THIRD_EYE_DISTANCE, -MAX_THIRD_EYE_DISTANCE, -MAX_THIRD_EYE_DISTANCE),
-                origin.offset(MAX_THIRD_EYE_DISTANCE, MAX_THIRD_EYE_DISTANCE, MAX_THIRD_EYE_DISTANCE)).forEach(pos -> {
-            BlockState state = level.getBlockState(pos);
-            if (state.getBlock() instanceof IOtherworldBlock) {
-                IOtherworldBlock block = (IOtherworldBlock) state.getBlock();
-                if (block.getTier().getLevel() <= tier.getLevel()) {
-                    if (!state.getValue(IOtherworldBlock.UNCOVERED)) {
-                        level.setBlock(pos, state.setValue(IOtherworldBlock.UNCOVERED, true), 1);
+        BlockPos min = origin.offset(-MAX_THIRD_EYE_DISTANCE, -MAX_THIRD_EYE_DISTANCE, -MAX_THIRD_EYE_DISTANCE);
+        BlockPos max = origin.offset(MAX_THIRD_EYE_DISTANCE, MAX_THIRD_EYE_DISTANCE, MAX_THIRD_EYE_DISTANCE);
+        int minSectionX = SectionPos.blockToSectionCoord(min.getX());
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(min.getY()), level.getMinSection());
+        int minSectionZ = SectionPos.blockToSectionCoord(min.getZ());
+        int maxSectionX = SectionPos.blockToSectionCoord(max.getX());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(max.getY()), level.getMaxSection() - 1);
+        int maxSectionZ = SectionPos.blockToSectionCoord(max.getZ());
+
+        //drop sections that left the distance, they will be rescanned when entering it again
+        this.scannedSections.keySet().removeIf((long section) -> {
+            int x = SectionPos.x(section);
+            int y = SectionPos.y(section);
+            int z = SectionPos.z(section);
+            return x < minSectionX || x > maxSectionX || y < minSectionY || y > maxSectionY || z < minSectionZ || z > maxSectionZ;
+        });
+
+        long gameTime = level.getGameTime();
+        boolean rescanned = false;
+        for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+            for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    long sectionPos = SectionPos.asLong(sectionX, sectionY, sectionZ);
+                    ScannedSection section = this.scannedSections.get(sectionPos);
+                    if (section == null || (!rescanned && gameTime - section.scanTime >= SECTION_RESCAN_TICKS)) {
+                        rescanned |= section != null;
+                        section = this.scanSection(level, sectionX, sectionY, sectionZ, gameTime);
+                        if (section == null)
+                            continue; //chunk not loaded yet
+                        this.scannedSections.put(sectionPos, section);
+                    }
+
+                    for (int i = 0; i < section.otherworldBlocks.size(); i++) {
+                        BlockPos pos = BlockPos.of(section.otherworldBlocks.getLong(i));
+                        if (pos.getX() < min.getX() || pos.getX() > max.getX() || pos.getY() < min.getY() ||
+                                pos.getY() > max.getY() || pos.getZ() < min.getZ() || pos.getZ() > max.getZ())
+                            continue;
+
+                        BlockState state = level.getBlockState(pos);
+                        if (state.getBlock() instanceof IOtherworldBlock block) {
+                            if (block.getTier().getLevel() <= tier.getLevel()) {
+                                if (!state.getValue(IOtherworldBlock.UNCOVERED)) {
+                                    level.setBlock(pos, state.setValue(IOtherworldBlock.UNCOVERED, true), 1);
+                                }
+                                this.uncoveredBlocks.add(pos);
+                            }
+                        }
                     }
-                    this.uncoveredBlocks.add(pos.immutable());
                 }
             }
-        });
+        }
+    }
+
+    /**
+     * Collects the positions of all otherworld blocks in the given section.
+     *
+     * @return the scanned section, or null if the chunk is not loaded.
+     */
+    protected ScannedSection scanSection(Level level, int sectionX, int sectionY, int sectionZ, long gameTime) {
+        LevelChunk chunk = level.getChunkSource().getChunk(sectionX, sectionZ, false);
+        if (chunk == null)
+            return null;
+
+        ScannedSection scannedSection = new ScannedSection(gameTime);
+        LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(sectionY));
+        if (section.hasOnlyAir() || !section.getStates().maybeHas(state -> state.getBlock() instanceof IOtherworldBlock))
+            return scannedSection;
+
+        int minX = SectionPos.sectionToBlockCoord(sectionX);
+        int minY = SectionPos.sectionToBlockCoord(sectionY);
+        int minZ = SectionPos.sectionToBlockCoord(sectionZ);
+        for (int y = 0; y < SectionPos.SECTION_SIZE; y++) {
+            for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
+                for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
+                    if (section.getBlockState(x, y, z).getBlock() instanceof IOtherworldBlock)
+                        scannedSection.otherworldBlocks.add(BlockPos.asLong(minX + x, minY + y, minZ + z));
+                }
+            }
+        }
+        return scannedSection;
     }
 
     public void onThirdEyeTick(TickEvent.PlayerTickEvent event) {
@@ -194,4 +301,13 @@ public class ThirdEyeEffectRenderer {
             }
         }
     }
+
+    protected static class ScannedSection {
+        protected final long scanTime;
+        protected final LongList otherworldBlocks = new LongArrayList();
+
+        public ScannedSection(long scanTime) {
+            this.scanTime = scanTime;
+        }
+    }
 }
@@ -22,6 +22,7 @@
 
 package com.github.klikli_dev.occultism.common.block;
 
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeIndex;
 import com.github.klikli_dev.occultism.crafting.recipe.ItemStackFakeInventory;
 import com.github.klikli_dev.occultism.crafting.recipe.SpiritFireRecipe;
 import com.github.klikli_dev.occultism.registry.OccultismRecipes;
@@ -63,13 +64,14 @@ public class SpiritFireBlock extends BaseFireBlock {
     @Override
     public void entityInside(BlockState pState, Level pLevel, BlockPos pPos, Entity pEntity) {
         if (pEntity instanceof ItemEntity item) {
-            ItemStackFakeInventory fakeInventory =
-                    new ItemStackFakeInventory(ItemStack.EMPTY);
-            fakeInventory.setItem(0, item.getItem());
-            Optional<SpiritFireRecipe> recipe =
-                    pLevel.getRecipeManager().getRecipeFor(OccultismRecipes.SPIRIT_FIRE_TYPE.get(), fakeInventory, pLevel);
+            //spirit fire recipes only look at the input ingredient, so the index can cache results per item
+            Optional<SpiritFireRecipe> recipe = ItemRecipeIndex.get(pLevel, OccultismRecipes.SPIRIT_FIRE_TYPE.get(),
+                    r -> r.getIngredients().get(0)).findFirst(item.getItem());
 
             if (recipe.isPresent()) {
+                ItemStackFakeInventory fakeInventory =
+                        new ItemStackFakeInventory(ItemStack.EMPTY);
+                fakeInventory.setItem(0, item.getItem());
                 item.remove(RemovalReason.DISCARDED);
 
                 ItemStack result = recipe.get().assemble(fakeInventory);
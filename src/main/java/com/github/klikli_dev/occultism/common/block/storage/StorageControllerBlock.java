@@ -74,6 +74,9 @@ public class StorageControllerBlock extends Block implements EntityBlock {
     @Override
     @SuppressWarnings("deprecation")
     public void onRemove(BlockState state, Level worldIn, BlockPos pos, BlockState newState, boolean isMoving) {
+        if (state.getBlock() != newState.getBlock() &&
+                worldIn.getBlockEntity(pos) instanceof StorageControllerBlockEntity storageController)
+            storageController.prepareForDrop();
         BlockEntityUtil.onBlockChangeDropWithNbt(this, state, worldIn, pos, newState);
         super.onRemove(state, worldIn, pos, newState, isMoving);
     }
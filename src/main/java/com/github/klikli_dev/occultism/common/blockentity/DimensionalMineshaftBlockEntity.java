@@ -22,8 +22,10 @@
 
 package com.github.klikli_dev.occultism.common.blockentity;
 
+import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.container.DimensionalMineshaftContainer;
 import com.github.klikli_dev.occultism.common.misc.WeightedOutputIngredient;
+import com.github.klikli_dev.occultism.common.misc.WeightedSampler;
 import com.github.klikli_dev.occultism.crafting.recipe.MinerRecipe;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismRecipes;
@@ -35,13 +37,13 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.util.random.WeightedRandom;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.RecipeManager;
 import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.common.capabilities.Capability;
@@ -57,14 +59,20 @@ import net.minecraftforge.registries.ForgeRegistries;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 
 public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implements MenuProvider {
 
     //region Fields
+    /**
+     * Result samplers per input item. Keyed by recipe manager, as reloading recipes creates a new one.
+     */
+    private static final Map<RecipeManager, Map<Item, WeightedSampler<WeightedOutputIngredient>>> RESULT_SAMPLERS =
+            new WeakHashMap<>();
     public static final ResourceLocation EVILCRAFT_UNUSING_ENCHANTEMENT = new ResourceLocation("evilcraft:unusing");
     public static final String MAX_MINING_TIME_TAG = "maxMiningTime";
     public static final int DEFAULT_MAX_MINING_TIME = 400;
@@ -94,7 +102,10 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
     public int maxMiningTime = 0;
     public int rollsPerOperation = 0;
     protected Item currentInputType;
-    protected List<WeightedOutputIngredient> possibleResults;
+    /**
+     * Ticks that passed since the mineshaft was last processed, see batchTicks in the server config.
+     */
+    protected int pendingTicks;
 
     //endregion Fields
     //region Initialization
@@ -182,36 +193,79 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
         super.setRemoved();
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (!this.level.isClientSide) {
+            //spread out batch processing of mineshafts loaded at the same time
+            this.pendingTicks = this.level.random.nextInt(Occultism.SERVER_CONFIG.dimensionalMineshaft.batchTicks.get());
+        }
+    }
+
     public void tick() {
         if (!this.level.isClientSide) {
-            IItemHandler inputHandler = this.inputHandler.orElseThrow(ItemHandlerMissingException::new);
+            this.pendingTicks++;
+            if (this.pendingTicks < Occultism.SERVER_CONFIG.dimensionalMineshaft.batchTicks.get())
+                return;
+
+            int ticks = this.pendingTicks;
+            this.pendingTicks = 0;
+            this.processTicks(ticks);
+        } else {
+            if (this.miningTime > 0 && this.level.getGameTime() % 10 == 0) {
+                this.level.addParticle(ParticleTypes.PORTAL, this.worldPosition.getX() + 0.5f,
+                        this.worldPosition.getY() + 0.5, this.worldPosition.getZ() + 0.5f, 0.0D, 0.0D, 0.0D);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public AbstractContainerMenu createMenu(int id, Inventory playerInventory, Player player) {
+        return new DimensionalMineshaftContainer(id, playerInventory, this);
+    }
+    //endregion Static Methods
+
+    //region Methods
+
+    /**
+     * Advances mining by the given amount of ticks. Mining operations are processed in steps instead of tick by tick,
+     * so processing many ticks at once costs about the same as processing one.
+     *
+     * @param ticks the amount of ticks that have passed.
+     */
+    public void processTicks(int ticks) {
+        IItemHandler inputHandler = this.inputHandler.orElseThrow(ItemHandlerMissingException::new);
+
+        boolean dirty = false;
+        int remainingTicks = ticks;
+        while (remainingTicks > 0) {
             ItemStack input = inputHandler.getStackInSlot(0);
 
             //handle unusing enchantment from evilcraft, see https://github.com/klikli-dev/occultism/issues/909
-            if(input.getMaxDamage() - input.getDamageValue() < 6 &&
+            if (input.getMaxDamage() - input.getDamageValue() < 6 &&
                     ForgeRegistries.ENCHANTMENTS.containsKey(EVILCRAFT_UNUSING_ENCHANTEMENT) &&
-                    input.isEnchanted() && input.getEnchantmentLevel(ForgeRegistries.ENCHANTMENTS.getValue(EVILCRAFT_UNUSING_ENCHANTEMENT)) > 0){
-               this.miningTime = 0;
-               return;
+                    input.isEnchanted() && input.getEnchantmentLevel(ForgeRegistries.ENCHANTMENTS.getValue(EVILCRAFT_UNUSING_ENCHANTEMENT)) > 0) {
+                this.miningTime = 0;
+                break;
             }
 
-            boolean dirty = false;
             if (this.miningTime > 0) {
-                this.miningTime--;
-
-                if (this.miningTime == 0 && !this.level.isClientSide) {
-                    this.mine();
-                }
+                int previousMiningTime = this.miningTime;
+                int step = Math.min(remainingTicks, this.miningTime);
+                this.miningTime -= step;
+                remainingTicks -= step;
 
                 if (input.getItem() != this.currentInputType) {
                     //If the item was removed manually or consumed, set mining time to 0, which prevents further processing
                     //and sets up for starting the next operation in the next tick
                     this.miningTime = 0;
-
-                    //if the item was used up or switched, we also delete our result cache
-                    this.possibleResults = null;
+                } else if (this.miningTime == 0) {
+                    this.mine();
                 }
-                if (this.miningTime % 10 == 0)
+
+                //sync progress every 10 ticks of mining time
+                if (this.miningTime == 0 || Math.floorDiv(previousMiningTime - 1, 10) != Math.floorDiv(this.miningTime - 1, 10))
                     dirty = true;
             } else if (!input.isEmpty()) {
                 //if we're done with the last mining job, and we have valid input, start the next one.
@@ -221,52 +275,37 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
                 this.maxMiningTime = getMaxMiningTime(input);
                 this.rollsPerOperation = getRollsPerOperation(input);
                 this.miningTime = this.maxMiningTime;
+                remainingTicks--;
                 dirty = true;
-            }
-
-            if (dirty) {
-                this.markNetworkDirty();
-            }
-        } else {
-            if (this.miningTime > 0 && this.level.getGameTime() % 10 == 0) {
-                this.level.addParticle(ParticleTypes.PORTAL, this.worldPosition.getX() + 0.5f,
-                        this.worldPosition.getY() + 0.5, this.worldPosition.getZ() + 0.5f, 0.0D, 0.0D, 0.0D);
+            } else {
+                break;
             }
         }
-    }
 
-    @Nullable
-    @Override
-    public AbstractContainerMenu createMenu(int id, Inventory playerInventory, Player player) {
-        return new DimensionalMineshaftContainer(id, playerInventory, this);
+        if (dirty) {
+            this.markNetworkDirty();
+        }
     }
-    //endregion Static Methods
 
-    //region Methods
     public void mine() {
         ItemStackHandler inputHandler = this.inputHandler.orElseThrow(ItemHandlerMissingException::new);
         ItemStackHandler outputHandler = this.outputHandler.orElseThrow(ItemHandlerMissingException::new);
 
-        if (this.possibleResults == null) {
-            List<MinerRecipe> recipes = this.level.getRecipeManager()
-                    .getRecipesFor(OccultismRecipes.MINER_TYPE.get(),
-                            new RecipeWrapper(inputHandler), this.level);
-            if (recipes == null || recipes.size() == 0) {
-                this.possibleResults = new ArrayList<>();
-            } else {
-                this.possibleResults = recipes.stream().map(r -> r.getWeightedOutput()).collect(Collectors.toList());
-            }
-        }
-
-        if (this.possibleResults.size() == 0)
+        WeightedSampler<WeightedOutputIngredient> resultSampler = this.getResultSampler(inputHandler.getStackInSlot(0));
+        if (resultSampler.isEmpty())
             return;
 
-        for (int i = 0; i < this.rollsPerOperation; i++) {
-            Optional<WeightedOutputIngredient> result = WeightedRandom.getRandomItem(this.level.random, this.possibleResults);
+        //draw all rolls at once, and insert each result type once.
+        int[] counts = resultSampler.sampleCounts(this.level.random, this.rollsPerOperation);
+        List<WeightedOutputIngredient> results = resultSampler.getEntries();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0)
+                continue;
+
             //Important: copy the result, don't use it raw!
-            result.ifPresent(r -> {
-                ItemHandlerHelper.insertItemStacked(outputHandler, r.getStack().copy(), false);
-            });
+            ItemStack result = results.get(i).getStack();
+            ItemHandlerHelper.insertItemStacked(outputHandler,
+                    ItemHandlerHelper.copyStackWithSize(result, result.getCount() * counts[i]), false);
             //If there is no space, we simply continue. The otherworld miner spirit keeps working,
             // but the miner block entity simply discards the results
         }
@@ -279,6 +318,36 @@ public class DimensionalMineshaftBlockEntity extends NetworkedBlockEntity implem
         }
     }
 
+    /**
+     * Gets the sampler for the possible results of the given miner spirit.
+     *
+     * @param input the miner spirit.
+     * @return the result sampler, empty if no miner recipe matches.
+     */
+    protected WeightedSampler<WeightedOutputIngredient> getResultSampler(ItemStack input) {
+        RecipeManager recipeManager = this.level.getRecipeManager();
+        synchronized (RESULT_SAMPLERS) {
+            return RESULT_SAMPLERS.computeIfAbsent(recipeManager, manager -> new HashMap<>())
+                    .computeIfAbsent(input.getItem(), item -> {
+                        ItemStackHandler handler = new ItemStackHandler(1);
+                        handler.setStackInSlot(0, input.copy());
+                        List<MinerRecipe> recipes = recipeManager.getRecipesFor(OccultismRecipes.MINER_TYPE.get(),
+                                new RecipeWrapper(handler), this.level);
+                        return new WeightedSampler<>(recipes.stream().map(MinerRecipe::getWeightedOutput)
+                                .collect(Collectors.toList()));
+                    });
+        }
+    }
+
+    /**
+     * Drops all cached result samplers, call when tags are reloaded, as results may be based on tags.
+     */
+    public static void invalidateResultSamplers() {
+        synchronized (RESULT_SAMPLERS) {
+            RESULT_SAMPLERS.clear();
+        }
+    }
+
     @Override
     public void invalidateCaps() {
         super.invalidateCaps();
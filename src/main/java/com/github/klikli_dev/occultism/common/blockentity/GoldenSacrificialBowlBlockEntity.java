@@ -26,6 +26,8 @@ import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.item.DummyTooltipItem;
 import com.github.klikli_dev.occultism.common.item.spirit.BookOfBindingItem;
 import com.github.klikli_dev.occultism.common.ritual.Ritual;
+import com.github.klikli_dev.occultism.common.ritual.RitualEventDispatcher;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeIndex;
 import com.github.klikli_dev.occultism.crafting.recipe.RitualRecipe;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismParticles;
@@ -36,6 +38,8 @@ import com.klikli_dev.modonomicon.api.ModonomiconAPI;
 import com.klikli_dev.modonomicon.api.multiblock.Multiblock;
 import com.klikli_dev.modonomicon.api.multiblock.Multiblock.SimulateResult;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -58,15 +62,13 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Rotation;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
-import net.minecraftforge.event.entity.player.PlayerInteractEvent.RightClickItem;
 import net.minecraftforge.items.IItemHandler;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.function.Consumer;
 
 public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity {
 
@@ -80,15 +82,19 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
     public boolean itemUseProvided;
     public int currentTime;
 
-    public Consumer<RightClickItem> rightClickItemListener;
-    public Consumer<LivingDeathEvent> livingDeathEventListener;
+    /**
+     * Re-validate a cached pentacle after this many ticks even if no block change was reported, to catch changes
+     * that do not notify neighbors.
+     */
+    public static final int PENTACLE_REVALIDATION_TICKS = 20 * 5;
+    protected Multiblock validatedPentacle;
+    protected Rotation validatedPentacleRotation;
+    protected LongSet validatedPentaclePositions;
+    protected long pentacleValidationTime;
 
 
     public GoldenSacrificialBowlBlockEntity(BlockPos worldPos, BlockState state) {
         super(OccultismTiles.GOLDEN_SACRIFICIAL_BOWL.get(), worldPos, state);
-
-        this.rightClickItemListener = this::onPlayerRightClickItem;
-        this.livingDeathEventListener = this::onLivingDeath;
     }
 
     // If we find pentacle that almost matches block in the world, then print help
@@ -235,8 +241,8 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                 Optional<? extends Recipe<?>> recipe = this.level.getRecipeManager().byKey(this.currentRitualRecipeId);
                 recipe.map(r -> (RitualRecipe) r).ifPresent(r -> this.currentRitualRecipe = r);
 
-                MinecraftForge.EVENT_BUS.addListener(rightClickItemListener);
-                MinecraftForge.EVENT_BUS.addListener(livingDeathEventListener);
+                if (this.currentRitualRecipe != null)
+                    RitualEventDispatcher.register(this);
 
                 this.currentRitualRecipeId = null;
             }
@@ -333,6 +339,42 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
         }
     }
 
+    /**
+     * Finds the first ritual recipe matching the given activation item, the items on the sacrificial bowls and the
+     * pentacle around the golden bowl.
+     * Only recipes accepting the activation item are checked, and bowl contents and pentacle validity are looked up
+     * once per pentacle instead of once per recipe.
+     *
+     * @param level          the level.
+     * @param pos            the position of the golden bowl.
+     * @param activationItem the item used to start the ritual.
+     * @return the matching recipe, or null if none matches.
+     */
+    @Nullable
+    protected RitualRecipe findRitualRecipe(Level level, BlockPos pos, ItemStack activationItem) {
+        List<RitualRecipe> candidates = ItemRecipeIndex.get(level, OccultismRecipes.RITUAL_TYPE.get(),
+                RitualRecipe::getActivationItem).getCandidates(activationItem);
+
+        Map<ResourceLocation, List<ItemStack>> itemsOnBowlsByPentacle = new HashMap<>();
+        Map<ResourceLocation, Boolean> validPentacles = new HashMap<>();
+        for (RitualRecipe recipe : candidates) {
+            if (recipe.getPentacle() == null || !recipe.getActivationItem().test(activationItem))
+                continue;
+
+            //the bowls in range depend on the pentacle size
+            Ritual ritual = recipe.getRitual();
+            List<ItemStack> itemsOnBowls = itemsOnBowlsByPentacle.computeIfAbsent(recipe.getPentacleId(),
+                    id -> ritual.getItemsOnSacrificialBowls(level, pos));
+            if (!ritual.matchesAdditionalIngredients(recipe.getIngredients(), itemsOnBowls))
+                continue;
+
+            if (validPentacles.computeIfAbsent(recipe.getPentacleId(),
+                    id -> recipe.getPentacle().validate(level, pos) != null))
+                return recipe;
+        }
+        return null;
+    }
+
     public boolean activate(Level level, BlockPos pos, Player player, InteractionHand hand, Direction face) {
         if (!level.isClientSide) {
             ItemStack activationItem = player.getItemInHand(hand);
@@ -348,9 +390,7 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             if (this.getCurrentRitualRecipe() == null) {
                 //Identify the ritual in the ritual registry.
 
-                RitualRecipe ritualRecipe = this.level.getRecipeManager().getAllRecipesFor(OccultismRecipes.RITUAL_TYPE.get()).stream().filter(
-                        r -> r.matches(level, pos, activationItem)
-                ).findFirst().orElse(null);
+                RitualRecipe ritualRecipe = this.findRitualRecipe(level, pos, activationItem);
 
                 if (ritualRecipe != null) {
                     if (ritualRecipe.getRitual().isValid(level, pos, this, player, activationItem,
@@ -401,8 +441,7 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
             this.currentRitualRecipe.getRitual().start(this.level, this.getBlockPos(), this, player, handler.getStackInSlot(0));
 
 
-            MinecraftForge.EVENT_BUS.addListener(rightClickItemListener);
-            MinecraftForge.EVENT_BUS.addListener(livingDeathEventListener);
+            RitualEventDispatcher.register(this);
 
             this.setChanged();
             this.markNetworkDirty();
@@ -437,14 +476,65 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
                 this.remainingAdditionalIngredients.clear();
             this.consumedIngredients.clear();
 
-            MinecraftForge.EVENT_BUS.unregister(rightClickItemListener);
-            MinecraftForge.EVENT_BUS.unregister(livingDeathEventListener);
+            RitualEventDispatcher.unregister(this);
+            this.invalidatePentacle();
 
             this.setChanged();
             this.markNetworkDirty();
         }
     }
 
+    /**
+     * Checks if the given pentacle is built around this golden bowl.
+     * While a ritual is running the result is cached together with the rotation and block positions of the pentacle,
+     * and only re-validated when a block of the pentacle changes or after {@link #PENTACLE_REVALIDATION_TICKS}.
+     *
+     * @param pentacle the pentacle to validate.
+     * @return true if the pentacle is valid.
+     */
+    public boolean isPentacleValid(Multiblock pentacle) {
+        //only running rituals receive block change notifications, so we cannot rely on the cache otherwise.
+        boolean canUseCache = this.currentRitualRecipe != null;
+        long gameTime = this.level.getGameTime();
+        if (canUseCache && this.validatedPentacle == pentacle &&
+                gameTime - this.pentacleValidationTime < PENTACLE_REVALIDATION_TICKS)
+            return true;
+
+        Rotation rotation = pentacle.validate(this.level, this.getBlockPos());
+        if (rotation == null) {
+            this.invalidatePentacle();
+            return false;
+        }
+
+        if (this.validatedPentacle != pentacle || this.validatedPentacleRotation != rotation) {
+            LongSet positions = new LongOpenHashSet();
+            for (SimulateResult result : pentacle.simulate(this.level, this.getBlockPos(), rotation, false, false).getSecond()) {
+                positions.add(result.getWorldPosition().asLong());
+            }
+            this.validatedPentacle = pentacle;
+            this.validatedPentacleRotation = rotation;
+            this.validatedPentaclePositions = positions;
+        }
+        this.pentacleValidationTime = gameTime;
+        return true;
+    }
+
+    public void invalidatePentacle() {
+        this.validatedPentacle = null;
+        this.validatedPentacleRotation = null;
+        this.validatedPentaclePositions = null;
+    }
+
+    /**
+     * Called by the {@link RitualEventDispatcher} when a block near this golden bowl changed.
+     *
+     * @param pos the changed position.
+     */
+    public void onBlockChanged(BlockPos pos) {
+        if (this.validatedPentaclePositions != null && this.validatedPentaclePositions.contains(pos.asLong()))
+            this.invalidatePentacle();
+    }
+
     public boolean sacrificeFulfilled() {
         return !this.getCurrentRitualRecipe().requiresSacrifice() || this.sacrificeProvided;
     }
@@ -502,6 +592,18 @@ public class GoldenSacrificialBowlBlockEntity extends SacrificialBowlBlockEntity
 
     }
 
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        RitualEventDispatcher.unregister(this);
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        RitualEventDispatcher.unregister(this);
+    }
+
     @Override
     public void load(CompoundTag compound) {
         super.load(compound);
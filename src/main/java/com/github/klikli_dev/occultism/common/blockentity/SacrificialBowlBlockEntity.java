@@ -22,10 +22,12 @@
 
 package com.github.klikli_dev.occultism.common.blockentity;
 
+import com.github.klikli_dev.occultism.common.misc.BlockEntityChunkIndex;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.common.capabilities.Capability;
@@ -35,10 +37,16 @@ import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 
 public class SacrificialBowlBlockEntity extends NetworkedBlockEntity {
 
     //region Fields
+    /**
+     * All loaded (non-golden) sacrificial bowls, so rituals can find the bowls around them without scanning.
+     */
+    protected static final BlockEntityChunkIndex<SacrificialBowlBlockEntity> LOADED_BOWLS = new BlockEntityChunkIndex<>();
+
     public long lastChangeTime;
     public LazyOptional<ItemStackHandler> itemStackHandler = LazyOptional.of(
             () -> new ItemStackHandler(1) {
@@ -82,6 +90,25 @@ public class SacrificialBowlBlockEntity extends NetworkedBlockEntity {
         return super.getCapability(cap, direction);
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (!(this instanceof GoldenSacrificialBowlBlockEntity))
+            LOADED_BOWLS.add(this);
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        LOADED_BOWLS.remove(this);
+    }
+
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        LOADED_BOWLS.remove(this);
+    }
+
     @Override
     public void loadNetwork(CompoundTag compound) {
         this.itemStackHandler.ifPresent((handler) -> handler.deserializeNBT(compound.getCompound("inventory")));
@@ -102,4 +129,19 @@ public class SacrificialBowlBlockEntity extends NetworkedBlockEntity {
     }
 
     //endregion Overrides
+
+    //region Static Methods
+
+    /**
+     * Gets the loaded sacrificial bowls in the given box, excluding golden sacrificial bowls. Server side only.
+     *
+     * @param level the level.
+     * @param min   the minimum corner of the box (inclusive).
+     * @param max   the maximum corner of the box (inclusive).
+     * @return the sacrificial bowls, in no particular order.
+     */
+    public static List<SacrificialBowlBlockEntity> getLoadedBowls(Level level, BlockPos min, BlockPos max) {
+        return LOADED_BOWLS.getInBox(level, min, max);
+    }
+    //endregion Static Methods
 }
@@ -30,6 +30,7 @@ import com.github.klikli_dev.occultism.api.common.data.SortDirection;
 import com.github.klikli_dev.occultism.api.common.data.SortType;
 import com.github.klikli_dev.occultism.common.block.storage.StableWormholeBlock;
 import com.github.klikli_dev.occultism.common.container.storage.StableWormholeContainer;
+import com.github.klikli_dev.occultism.common.misc.StorageProxyRegistry;
 import com.github.klikli_dev.occultism.registry.OccultismTiles;
 import com.github.klikli_dev.occultism.util.BlockEntityUtil;
 import net.minecraft.core.BlockPos;
@@ -147,6 +148,24 @@ public class StableWormholeBlockEntity extends NetworkedBlockEntity implements I
         this.linkedStorageControllerPosition = blockPos;
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        StorageProxyRegistry.register(this);
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        StorageProxyRegistry.unregister(this);
+    }
+
+    @Override
+    public void setRemoved() {
+        StorageProxyRegistry.unregister(this);
+        super.setRemoved();
+    }
+
     @Nonnull
     @Override
     public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, Direction side) {
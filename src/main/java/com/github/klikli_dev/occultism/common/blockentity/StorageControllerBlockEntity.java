@@ -38,7 +38,10 @@ import com.github.klikli_dev.occultism.common.entity.job.ManageMachineJob;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.common.misc.DepositOrder;
 import com.github.klikli_dev.occultism.common.misc.ItemStackComparator;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerItemStackHandler;
+import com.github.klikli_dev.occultism.common.misc.StorageControllerPersistence;
+import com.github.klikli_dev.occultism.common.misc.StorageProxyRegistry;
 import com.github.klikli_dev.occultism.network.MessageUpdateStacks;
 import com.github.klikli_dev.occultism.registry.OccultismBlocks;
 import com.github.klikli_dev.occultism.registry.OccultismItems;
@@ -51,6 +54,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.MenuProvider;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
@@ -98,14 +102,19 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     public Map<GlobalBlockPos, UUID> depositOrderSpirits = new HashMap<>();
     protected SortDirection sortDirection = SortDirection.DOWN;
     protected SortType sortType = SortType.AMOUNT;
-    protected ItemStackHandler itemStackHandlerInternal = new StorageControllerItemStackHandler(this,
+    protected StorageControllerItemStackHandler itemStackHandlerInternal = new StorageControllerItemStackHandler(this,
             Occultism.SERVER_CONFIG.storage.controllerBaseSlots.get(),
             Occultism.SERVER_CONFIG.storage.controllerStackSize.get(),
             Occultism.SERVER_CONFIG.storage.overrideItemStackSizes.get()
     );
     protected LazyOptional<ItemStackHandler> itemStackHandler = LazyOptional.of(() -> this.itemStackHandlerInternal);
+    protected StorageControllerPersistence persistence = new StorageControllerPersistence(this.itemStackHandlerInternal);
+    /**
+     * True to save the contents in the block entity tag even if they are persisted in shards, e.g. for dropping the
+     * controller as item.
+     */
+    protected boolean embedContents;
     protected int maxSlots = Occultism.SERVER_CONFIG.storage.controllerBaseSlots.get();
-    protected int usedSlots = 0;
     protected boolean stabilizersInitialized = false;
     protected GlobalBlockPos globalPos;
     protected MessageUpdateStacks cachedMessageUpdateStacks;
@@ -166,39 +175,11 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         return 0;
     }
 
-    protected void mergeIntoList(List<ItemStack> list, ItemStack stackToAdd) {
-        boolean merged = false;
-        for (ItemStack stack : list) {
-            if (ItemHandlerHelper.canItemStacksStack(stackToAdd, stack)) {
-                stack.setCount(stack.getCount() + stackToAdd.getCount());
-                merged = true;
-                break;
-            }
-        }
-        if (!merged) {
-            list.add(stackToAdd);
-        }
-    }
-
     protected void validateLinkedMachines() {
         // remove all entries that lead to invalid block entities.
         this.linkedMachines.entrySet().removeIf(entry -> !entry.getValue().isValidFor(this.level));
     }
 
-    private List<Predicate<ItemStack>> getComparatorsSortedByAmount(Predicate<ItemStack> comparator) {
-        var handler = this.itemStackHandlerInternal;
-        var map = new HashMap<Item, Integer>();
-        for (int i = 0; i < handler.getSlots(); i++) {
-            var getStackInSlot = handler.getStackInSlot(i);
-            if (comparator.test(getStackInSlot)) {
-                var oldCount = map.getOrDefault(getStackInSlot.getItem(), 0);
-                map.put(getStackInSlot.getItem(), oldCount + getStackInSlot.getCount());
-            }
-        }
-        return map.entrySet().stream().sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .map(entry -> (Predicate<ItemStack>) stack -> stack.getItem() == entry.getKey()).toList();
-    }
-
     private <E extends IAnimatable> PlayState predicate(AnimationEvent<E> event) {
         event.getController().setAnimation(new AnimationBuilder().addAnimation("animation.dimensional_matrix.new", ILoopType.EDefaultLoopTypes.LOOP));
         return PlayState.CONTINUE;
@@ -263,18 +244,13 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
 
     @Override
     public List<ItemStack> getStacks() {
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        int size = handler.getSlots();
-        int usedSlots = 0;
-        List<ItemStack> result = new ArrayList<>(size);
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack stack = handler.getStackInSlot(slot);
-            if (!stack.isEmpty()) {
-                usedSlots++;
-                this.mergeIntoList(result, stack.copy());
-            }
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
+        List<ItemStack> result = new ArrayList<>(handler.getIndexEntries().size());
+        //the index already holds the merged stacks, so we just copy one stack per entry with the total count.
+        for (StorageControllerItemStackHandler.IndexEntry entry : handler.getIndexEntries()) {
+            ItemStack stack = handler.getStackInSlot(entry.getSlots().firstInt());
+            result.add(ItemHandlerHelper.copyStackWithSize(stack, entry.getCount()));
         }
-        this.usedSlots = usedSlots;
         return result;
     }
 
@@ -282,11 +258,38 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     public MessageUpdateStacks getMessageUpdateStacks() {
         if (this.cachedMessageUpdateStacks == null) {
             List<ItemStack> stacks = this.getStacks();
-            this.cachedMessageUpdateStacks = new MessageUpdateStacks(stacks, this.getUsedSlots(), this.getMaxSlots());
+            this.cachedMessageUpdateStacks = new MessageUpdateStacks(stacks, this.getUsedSlots(), this.getMaxSlots(),
+                    this.itemStackHandlerInternal.getVersion());
         }
         return this.cachedMessageUpdateStacks;
     }
 
+    @Override
+    public MessageUpdateStacks getMessageUpdateStacks(int knownVersion) {
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
+        if (knownVersion == handler.getVersion())
+            return null;
+
+        List<ItemStackKey> changes = handler.getChangesSince(knownVersion);
+        //if we do not know the changes, or they are not smaller than the whole contents, send everything.
+        if (changes == null || changes.size() >= handler.getIndexEntries().size())
+            return this.getMessageUpdateStacks();
+
+        List<ItemStack> changedStacks = new ArrayList<>();
+        List<ItemStack> removedStacks = new ArrayList<>();
+        for (ItemStackKey key : changes) {
+            StorageControllerItemStackHandler.IndexEntry entry = handler.getEntry(key);
+            if (entry != null) {
+                ItemStack stack = handler.getStackInSlot(entry.getSlots().firstInt());
+                changedStacks.add(ItemHandlerHelper.copyStackWithSize(stack, entry.getCount()));
+            } else {
+                removedStacks.add(key.toStack(1));
+            }
+        }
+        return new MessageUpdateStacks(changedStacks, removedStacks, this.getUsedSlots(), this.getMaxSlots(),
+                knownVersion, handler.getVersion());
+    }
+
     @Override
     public int getMaxSlots() {
         return this.maxSlots;
@@ -303,7 +306,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
 
     @Override
     public int getUsedSlots() {
-        return this.usedSlots;
+        return this.itemStackHandlerInternal.getUsedSlots();
     }
 
     @Override
@@ -371,12 +374,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (this.isBlacklisted(stack))
             return stack.getCount();
 
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        if (ItemHandlerHelper.insertItem(handler, stack, true).getCount() < stack.getCount()) {
-            stack = ItemHandlerHelper.insertItem(handler, stack, simulate);
-        }
-
-        return stack.getCount();
+        return this.itemStackHandlerInternal.insertItemIndexed(stack, simulate).getCount();
     }
 
     @Override
@@ -385,32 +383,25 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
             return ItemStack.EMPTY;
         }
 
-        var comparators = this.getComparatorsSortedByAmount(comparator);
-
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-
-        //we start with the comparator representing the most common item, and if we don't find anything we move on.
-        //Note: unless something weird happens we should always find something.
-        for (var currentComparator : comparators) {
-            for (int slot = 0; slot < handler.getSlots(); slot++) {
-
-                //first we force a simulation to check if the stack fits
-                ItemStack stack = handler.extractItem(slot, 1, true);
-                if (stack.isEmpty()) {
-                    continue;
-                }
-
-                if (currentComparator.test(stack)) {
-                    //now we do the actual operation (note: can still be a simulation, if caller wants to simulate=
-                    return handler.extractItem(slot, 1, simulate);
-                }
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
+        List<StorageControllerItemStackHandler.IndexEntry> entries = handler.getMatchingEntries(comparator);
+        if (entries.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
 
-                //this slot does not match so we move on in the loop.
-            }
+        //sum up the counts per item (ignoring nbt), the most common item wins.
+        Map<Item, Integer> countsByItem = new HashMap<>();
+        for (var entry : entries) {
+            countsByItem.merge(entry.getKey().getItem(), entry.getCount(), Integer::sum);
+        }
+        StorageControllerItemStackHandler.IndexEntry mostCommon = entries.get(0);
+        for (var entry : entries) {
+            if (countsByItem.get(entry.getKey().getItem()) > countsByItem.get(mostCommon.getKey().getItem()))
+                mostCommon = entry;
         }
 
-        //nothing found
-        return ItemStack.EMPTY;
+        //extract from the last slot, if that empties an oversized slot the removal does not shift any other slots.
+        return handler.extractItem(mostCommon.getSlots().lastInt(), 1, simulate);
     }
 
     @Override
@@ -418,44 +409,27 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (requestedSize <= 0 || comparator == null) {
             return ItemStack.EMPTY;
         }
-        ItemStackHandler handler = this.itemStackHandlerInternal;
+        StorageControllerItemStackHandler handler = this.itemStackHandlerInternal;
+        List<StorageControllerItemStackHandler.IndexEntry> entries = handler.getMatchingEntries(comparator);
+        if (entries.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
+
+        //all slots of an index entry hold stackable items, so we only need to take from the first matching entry.
+        int[] slots = entries.get(0).getSlots().toIntArray();
         ItemStack firstMatchedStack = ItemStack.EMPTY;
         int remaining = requestedSize;
-        for (int slot = 0; slot < handler.getSlots(); slot++) {
-
-            //first we force a simulation
-            ItemStack stack = handler.extractItem(slot, remaining, true);
-            if (stack.isEmpty()) {
+        //iterate backwards, so removing empty oversized slots does not shift the slots we still need to visit.
+        for (int i = slots.length - 1; i >= 0 && remaining > 0; i--) {
+            ItemStack extractedStack = handler.extractItem(slots[i], remaining, simulate);
+            if (extractedStack.isEmpty()) {
                 continue;
             }
 
-            //if we have not found anything yet we can just store the result or move on
             if (firstMatchedStack.isEmpty()) {
-
-                if (!comparator.test(stack)) {
-                    //this slot does not match so we move on
-                    continue;
-                }
-                //just take entire stack -> we're in sim mode
-                firstMatchedStack = stack.copy();
-            } else {
-                //we already found something, so we need to make sure the stacks match up, if not we move on.
-                if (!ItemHandlerHelper.canItemStacksStack(firstMatchedStack, stack)) {
-                    continue;
-                }
+                firstMatchedStack = extractedStack.copy();
             }
-
-            //get how many we have to extract in this round, cannot be more than we need nor more than is in this slot.
-            int toExtract = Math.min(stack.getCount(), remaining);
-
-            //now we can leave simulation up to the caller
-            ItemStack extractedStack = handler.extractItem(slot, toExtract, simulate);
             remaining -= extractedStack.getCount();
-
-            //if we got all we need we can exit here.
-            if (remaining <= 0) {
-                break;
-            }
         }
 
         //set the exact output count and return.
@@ -471,15 +445,7 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         if (comparator == null) {
             return 0;
         }
-        int totalCount = 0;
-        ItemStackHandler handler = this.itemStackHandlerInternal;
-        int size = handler.getSlots();
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack stack = handler.getStackInSlot(slot);
-            if (comparator.matches(stack))
-                totalCount += stack.getCount();
-        }
-        return totalCount;
+        return this.itemStackHandlerInternal.getCount(comparator);
     }
 
     @Override
@@ -488,6 +454,53 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         this.setChanged();
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        StorageProxyRegistry.register(this);
+
+        if (this.level instanceof ServerLevel serverLevel) {
+            //the block entity tag needs to be saved again whenever the contents moved, otherwise the next load would
+            //migrate them again.
+            if (Occultism.SERVER_CONFIG.storage.shardedControllerPersistence.get()) {
+                if (this.persistence.attach(serverLevel))
+                    this.setChanged();
+            } else if (this.persistence.getStorageId() != null) {
+                //sharded persistence was disabled, move the contents back into the block entity tag.
+                this.persistence.attach(serverLevel);
+                this.persistence.unlink();
+                this.setChanged();
+            }
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        StorageProxyRegistry.unregister(this);
+        this.persistence.detach();
+    }
+
+    @Override
+    public void setRemoved() {
+        StorageProxyRegistry.unregister(this);
+        //only empty the shards if the contents were embedded in the dropped item, otherwise whatever copied the block
+        //entity tag may still reference them.
+        if (this.embedContents)
+            this.persistence.discard();
+        else
+            this.persistence.detach();
+        super.setRemoved();
+    }
+
+    /**
+     * Prepares the controller to be dropped as item: the contents are embedded in the block entity tag from now on, as
+     * the shards are discarded when the block entity is removed.
+     */
+    public void prepareForDrop() {
+        this.embedContents = true;
+    }
+
     @Override
     public void invalidateCaps() {
         super.invalidateCaps();
@@ -514,7 +527,8 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
         compound.remove("linkedMachines"); //linked machines are not saved, they self-register.
         super.load(compound);
 
-        //read stored items
+        //read stored items, either from the shards referenced here or embedded in the tag
+        this.persistence.read(compound);
         if (compound.contains("items")) {
             this.itemStackHandlerInternal.deserializeNBT(compound.getCompound("items"));
             this.cachedMessageUpdateStacks = null;
@@ -525,7 +539,10 @@ public class StorageControllerBlockEntity extends NetworkedBlockEntity implement
     protected void saveAdditional(CompoundTag compound) {
         super.saveAdditional(compound);
         compound.remove("linkedMachines"); //linked machines are not saved, they self-register.
-        compound.put("items", this.itemStackHandlerInternal.serializeNBT());
+        if (!this.embedContents && this.persistence.getStorageId() != null)
+            this.persistence.write(compound);
+        else
+            compound.put("items", this.itemStackHandlerInternal.serializeNBT());
     }
 
     @Override
@@ -31,6 +31,7 @@ import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ContainerListener;
 import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.ItemStack;
 
@@ -52,6 +53,23 @@ public class SatchelContainer extends AbstractContainerMenu {
         this.setupSatchelSlots();
         this.setupPlayerInventorySlots();
         this.setupPlayerHotbar();
+
+        if (this.satchelInventory instanceof SatchelInventory inventory) {
+            //slots changed in place are only detected by the menu, forward them so the satchel knows what to write
+            this.addSlotListener(new ContainerListener() {
+                @Override
+                public void slotChanged(AbstractContainerMenu menu, int slotIndex, ItemStack stack) {
+                    Slot slot = menu.getSlot(slotIndex);
+                    if (slot.container == inventory)
+                        inventory.markSlotDirty(slot.getContainerSlot());
+                }
+
+                @Override
+                public void dataChanged(AbstractContainerMenu menu, int dataSlotIndex, int value) {
+
+                }
+            });
+        }
     }
     //endregion Initialization
 
@@ -64,10 +82,11 @@ public class SatchelContainer extends AbstractContainerMenu {
     //region Overrides
     @Override
     public void broadcastChanges() {
+        super.broadcastChanges();
+        //after detecting changed slots, only writes if the satchel contents changed
         if (this.satchelInventory instanceof SatchelInventory) {
             ((SatchelInventory) this.satchelInventory).writeItemStack();
         }
-        super.broadcastChanges();
     }
 
     @Override
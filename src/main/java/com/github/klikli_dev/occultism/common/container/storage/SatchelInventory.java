@@ -22,22 +22,50 @@
 
 package com.github.klikli_dev.occultism.common.container.storage;
 
-import net.minecraft.core.NonNullList;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.world.ContainerHelper;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Container backed by the "Items" tag of a satchel item stack.
+ * The tag of each slot is cached, so writing the stack only serializes the slots whose contents changed since the last
+ * write, and does not touch the stack tag at all if nothing changed.
+ */
 public class SatchelInventory extends SimpleContainer {
 
     //region Fields
     private final ItemStack itemStack;
+    /**
+     * The serialized slots as of the last read or write, null for empty slots.
+     */
+    private final CompoundTag[] slotTags;
+    /**
+     * Copies of the slot contents as of the last read or write, used to detect changes.
+     */
+    private final ItemStack[] writtenStacks;
+    /**
+     * Slots that may have changed since the last write.
+     */
+    private final BitSet dirtySlots = new BitSet();
+    /**
+     * True if the contents may have changed in any slot, e.g. due to items being added without a slot index.
+     */
+    private boolean allSlotsDirty;
     //endregion Fields
 
     //region Initialization
     public SatchelInventory(ItemStack itemStack, int count) {
         super(count);
         this.itemStack = itemStack;
+        this.slotTags = new CompoundTag[count];
+        this.writtenStacks = new ItemStack[count];
         this.readItemStack();
     }
     //endregion Initialization
@@ -48,12 +76,88 @@ public class SatchelInventory extends SimpleContainer {
     }
     //endregion Getter / Setter
 
+    //region Overrides
+    @Override
+    public void setItem(int index, ItemStack stack) {
+        super.setItem(index, stack);
+        this.markSlotDirty(index);
+    }
+
+    @Override
+    public ItemStack removeItem(int index, int count) {
+        this.markSlotDirty(index);
+        return super.removeItem(index, count);
+    }
+
+    @Override
+    public ItemStack removeItemNoUpdate(int index) {
+        this.markSlotDirty(index);
+        return super.removeItemNoUpdate(index);
+    }
+
+    @Override
+    public ItemStack addItem(ItemStack stack) {
+        this.allSlotsDirty = true;
+        return super.addItem(stack);
+    }
+
+    @Override
+    public ItemStack removeItemType(Item item, int count) {
+        this.allSlotsDirty = true;
+        return super.removeItemType(item, count);
+    }
+
+    @Override
+    public List<ItemStack> removeAllItems() {
+        this.allSlotsDirty = true;
+        return super.removeAllItems();
+    }
+
+    @Override
+    public void clearContent() {
+        super.clearContent();
+        this.allSlotsDirty = true;
+    }
+    //endregion Overrides
+
     //region Methods
+
+    /**
+     * Marks the given slot as possibly changed, so it is checked on the next write.
+     *
+     * @param index the slot index.
+     */
+    public void markSlotDirty(int index) {
+        this.dirtySlots.set(index);
+    }
+
     public void readItemStack() {
         this.readNBT(this.itemStack.getOrCreateTag());
     }
 
     public void writeItemStack() {
+        if (!this.allSlotsDirty && this.dirtySlots.isEmpty())
+            return;
+
+        boolean changed = false;
+        for (int index = 0; index < this.getContainerSize(); index++) {
+            if (!this.allSlotsDirty && !this.dirtySlots.get(index))
+                continue;
+
+            ItemStack stack = this.getItem(index);
+            if (ItemStack.matches(stack, this.writtenStacks[index]))
+                continue;
+
+            this.writtenStacks[index] = stack.copy();
+            this.slotTags[index] = stack.isEmpty() ? null : this.saveSlot(index, stack);
+            changed = true;
+        }
+        this.allSlotsDirty = false;
+        this.dirtySlots.clear();
+
+        if (!changed)
+            return;
+
         if (this.isEmpty()) {
             this.itemStack.removeTagKey("Items");
         } else {
@@ -62,21 +166,40 @@ public class SatchelInventory extends SimpleContainer {
     }
 
     private void readNBT(CompoundTag compound) {
-        final NonNullList<ItemStack> list = NonNullList.withSize(this.getContainerSize(), ItemStack.EMPTY);
-        if (compound.contains("Items")) {
-            ContainerHelper.loadAllItems(compound, list);
-            for (int index = 0; index < list.size(); index++) {
-                this.setItem(index, list.get(index));
+        Arrays.fill(this.slotTags, null);
+        Arrays.fill(this.writtenStacks, ItemStack.EMPTY);
+
+        //same format as ContainerHelper.loadAllItems
+        ListTag list = compound.getList("Items", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag slotTag = list.getCompound(i);
+            int index = slotTag.getByte("Slot") & 255;
+            if (index < this.getContainerSize()) {
+                ItemStack stack = ItemStack.of(slotTag);
+                this.setItem(index, stack);
+                this.slotTags[index] = slotTag;
+                this.writtenStacks[index] = stack.copy();
             }
         }
+        this.allSlotsDirty = false;
+        this.dirtySlots.clear();
     }
 
     private void writeNBT(CompoundTag compound) {
-        final NonNullList<ItemStack> list = NonNullList.withSize(this.getContainerSize(), ItemStack.EMPTY);
-        for (int index = 0; index < list.size(); index++) {
-            list.set(index, this.getItem(index));
+        //same format as ContainerHelper.saveAllItems, but built from the cached slot tags
+        ListTag list = new ListTag();
+        for (CompoundTag slotTag : this.slotTags) {
+            if (slotTag != null)
+                list.add(slotTag);
         }
-        ContainerHelper.saveAllItems(compound, list, false);
+        compound.put("Items", list);
+    }
+
+    private CompoundTag saveSlot(int index, ItemStack stack) {
+        CompoundTag slotTag = new CompoundTag();
+        slotTag.putByte("Slot", (byte) index);
+        stack.save(slotTag);
+        return slotTag;
     }
     //endregion Methods
-}
\ No newline at end of file
+}
@@ -31,6 +31,7 @@ import com.github.klikli_dev.occultism.network.MessageUpdateLinkedMachines;
 import com.github.klikli_dev.occultism.network.OccultismPackets;
 import com.github.klikli_dev.occultism.registry.OccultismContainers;
 import com.github.klikli_dev.occultism.util.BlockEntityUtil;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
@@ -136,7 +137,7 @@ public class StableWormholeContainer extends StorageControllerContainerBase {
 
         //send stack updates on a slow tick while interacting
         if (!level.isClientSide && level.getGameTime() % 40 == 0) {
-            OccultismPackets.sendTo((ServerPlayer) player, this.storageController.getMessageUpdateStacks());
+            StorageUtil.sendStackUpdate((ServerPlayer) player, this.storageController);
             OccultismPackets.sendTo((ServerPlayer) player,
                     new MessageUpdateLinkedMachines(this.storageController.getLinkedMachines()));
         }
@@ -27,9 +27,10 @@ import com.github.klikli_dev.occultism.api.common.container.IStorageControllerCo
 import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
 import com.github.klikli_dev.occultism.client.gui.storage.StorageControllerGuiBase;
 import com.github.klikli_dev.occultism.common.misc.ItemStackComparator;
+import com.github.klikli_dev.occultism.common.misc.ItemStackKey;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerCraftingInventory;
 import com.github.klikli_dev.occultism.common.misc.StorageControllerSlot;
-import com.github.klikli_dev.occultism.network.OccultismPackets;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.core.NonNullList;
 import net.minecraft.network.protocol.game.ClientboundContainerSetSlotPacket;
 import net.minecraft.server.level.ServerPlayer;
@@ -47,9 +48,7 @@ import net.minecraftforge.items.wrapper.PlayerMainInvWrapper;
 import net.minecraftforge.registries.ForgeRegistries;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 public abstract class StorageControllerContainerBase extends AbstractContainerMenu implements IStorageControllerContainer {
 
@@ -65,6 +64,8 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
      * used to lock recipe while crafting
      */
     protected boolean recipeLocked = false;
+
+    protected int syncedStacksVersion = -1;
     //endregion Fields
 
     //region Initialization
@@ -88,6 +89,16 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
                 (BlockEntity) this.getStorageController());
     }
 
+    @Override
+    public int getSyncedStacksVersion() {
+        return this.syncedStacksVersion;
+    }
+
+    @Override
+    public void setSyncedStacksVersion(int version) {
+        this.syncedStacksVersion = version;
+    }
+
     @Override
     public CraftingContainer getCraftMatrix() {
         return this.matrix;
@@ -139,7 +150,7 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
                 this.broadcastChanges();
 
                 //get updated stacks from storage controller and send to client
-                OccultismPackets.sendTo((ServerPlayer) player, storageController.getMessageUpdateStacks());
+                StorageUtil.sendStackUpdate((ServerPlayer) player, storageController);
 
                 if (!remainingItemStack.isEmpty()) {
                     slot.onTake(player, slotStack);
@@ -258,6 +269,14 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
         int resultStackSize = result.getCount();
         List<ItemStack> resultList = new ArrayList<>();
         int crafted = 0;
+
+        //craft as much as possible in one go, the loop below then handles whatever is left.
+        ItemStack bulkResult = this.craftShiftBulk(storageController, recipeCopy, result);
+        if (!bulkResult.isEmpty()) {
+            resultList.add(bulkResult);
+            crafted += bulkResult.getCount();
+        }
+
         while (crafted + resultStackSize <= result.getMaxStackSize()) {
             //AFAIK this should not happen unless an outside mod intervenes with the inventory during crafting
             //but, in modpacks it definitely does happen, see https://github.com/klikli-dev/occultism/issues/212
@@ -373,8 +392,107 @@ public abstract class StorageControllerContainerBase extends AbstractContainerMe
 
         //update crafting matrix to handle container items / items that survive crafting
         this.slotsChanged(this.matrix);
-        OccultismPackets.sendTo((ServerPlayer) player, this.getStorageController().getMessageUpdateStacks());
+        StorageUtil.sendStackUpdate((ServerPlayer) player, this.getStorageController());
+
+    }
+
+    /**
+     * Performs as many crafts as possible at once for recipes that leave no remaining items in the matrix.
+     * For these recipes every craft consumes exactly one item per ingredient slot, so the number of crafts can be
+     * calculated from the aggregate ingredient counts, and the ingredients can be taken from storage in batches.
+     *
+     * @param storageController the storage controller to take ingredients from.
+     * @param recipeCopy        the matrix contents before crafting, used to refill the matrix.
+     * @param result            the result of a single craft.
+     * @return the crafted results, or an empty stack if the recipe is not suitable for bulk crafting.
+     */
+    protected ItemStack craftShiftBulk(IStorageController storageController, List<ItemStack> recipeCopy,
+                                       ItemStack result) {
+        if (storageController == null || !result.isStackable())
+            return ItemStack.EMPTY;
+
+        for (ItemStack remainingItem : this.currentRecipe.getRemainingItems(this.matrix)) {
+            if (!remainingItem.isEmpty())
+                return ItemStack.EMPTY;
+        }
+
+        //same limit as crafting one by one: at most one stack of results, and only as much as fits the player inventory.
+        int resultStackSize = result.getCount();
+        ItemStack allResults = ItemHandlerHelper.copyStackWithSize(result,
+                result.getMaxStackSize() / resultStackSize * resultStackSize);
+        ItemStack notInserted = ItemHandlerHelper.insertItemStacked(new PlayerMainInvWrapper(this.playerInventory),
+                allResults, true);
+        int maxCrafts = (allResults.getCount() - notInserted.getCount()) / resultStackSize;
+
+        //group the matrix slots by ingredient, and look up how many of each ingredient storage holds
+        Map<ItemStackKey, List<Integer>> slotsByIngredient = new HashMap<>();
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stackInSlot = this.matrix.getItem(i);
+            if (!stackInSlot.isEmpty())
+                slotsByIngredient.computeIfAbsent(ItemStackKey.of(stackInSlot), key -> new ArrayList<>()).add(i);
+        }
+        Map<ItemStackKey, Integer> availableInStorage = new HashMap<>();
+        for (ItemStackKey ingredient : slotsByIngredient.keySet()) {
+            availableInStorage.put(ingredient, storageController.getAvailableAmount(
+                    new ItemStackComparator(ingredient.toStack(1), true)));
+        }
 
+        //find the largest amount of crafts that the matrix plus storage can supply
+        int crafts = maxCrafts;
+        for (; crafts > 0; crafts--) {
+            boolean enough = true;
+            for (Map.Entry<ItemStackKey, List<Integer>> entry : slotsByIngredient.entrySet()) {
+                if (this.getBulkCraftStorageDemand(entry.getValue(), crafts) > availableInStorage.get(entry.getKey())) {
+                    enough = false;
+                    break;
+                }
+            }
+            if (enough)
+                break;
+        }
+        if (crafts == 0)
+            return ItemStack.EMPTY;
+
+        //take what the matrix cannot supply from storage, one extraction per ingredient
+        for (Map.Entry<ItemStackKey, List<Integer>> entry : slotsByIngredient.entrySet()) {
+            int demand = this.getBulkCraftStorageDemand(entry.getValue(), crafts);
+            if (demand > 0) {
+                storageController.getItemStack(new ItemStackComparator(entry.getKey().toStack(1), true), demand,
+                        false);
+            }
+        }
+
+        //consume the ingredients in the matrix and refill emptied slots like a single craft would.
+        for (int i = 0; i < this.matrix.getContainerSize(); i++) {
+            ItemStack stackInSlot = this.matrix.getItem(i);
+            if (stackInSlot.isEmpty())
+                continue;
+
+            if (stackInSlot.getCount() > crafts) {
+                this.matrix.setItem(i, ItemHandlerHelper.copyStackWithSize(stackInSlot,
+                        stackInSlot.getCount() - crafts));
+            } else {
+                ItemStack recipeStack = recipeCopy.get(i);
+                ItemStackComparator comparator = !recipeStack.isEmpty() ? new ItemStackComparator(
+                        recipeStack) : null;
+                this.matrix.setItem(i, storageController.getOneOfMostCommonItem(comparator, false));
+            }
+        }
+
+        return ItemHandlerHelper.copyStackWithSize(result, crafts * resultStackSize);
+    }
+
+    /**
+     * @param slots  the matrix slots holding an ingredient.
+     * @param crafts the amount of crafts.
+     * @return the amount of the ingredient that needs to come from storage to perform the given amount of crafts.
+     */
+    protected int getBulkCraftStorageDemand(List<Integer> slots, int crafts) {
+        int demand = 0;
+        for (int slot : slots) {
+            demand += Math.max(0, crafts - this.matrix.getItem(slot).getCount());
+        }
+        return demand;
     }
     //endregion Methods
 }
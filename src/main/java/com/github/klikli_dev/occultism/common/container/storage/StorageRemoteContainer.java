@@ -31,6 +31,7 @@ import com.github.klikli_dev.occultism.network.MessageUpdateLinkedMachines;
 import com.github.klikli_dev.occultism.network.OccultismPackets;
 import com.github.klikli_dev.occultism.registry.OccultismContainers;
 import com.github.klikli_dev.occultism.util.CuriosUtil;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.server.level.ServerPlayer;
@@ -169,7 +170,7 @@ public class StorageRemoteContainer extends StorageControllerContainerBase {
         //stack updates every 40 ticks.
         if (storageController != null && !entityPlayer.level.isClientSide &&
                 entityPlayer.level.getGameTime() % 40 == 0) {
-            OccultismPackets.sendTo((ServerPlayer) this.player, this.getStorageController().getMessageUpdateStacks());
+            StorageUtil.sendStackUpdate((ServerPlayer) this.player, this.getStorageController());
             OccultismPackets.sendTo((ServerPlayer) this.player,
                     new MessageUpdateLinkedMachines(this.getStorageController().getLinkedMachines()));
         }
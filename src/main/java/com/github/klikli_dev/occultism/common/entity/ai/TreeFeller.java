@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.klikli_dev.occultism.common.entity.ai;
+
+import com.github.klikli_dev.occultism.common.entity.ai.sensor.NearestTreeSensor;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.common.util.INBTSerializable;
+
+/**
+ * Fells trees a limited amount of logs at a time, walking the tree breadth first from its stump.
+ * Logs are destroyed with drops exactly as if the tree was felled at once, but the work is spread across ticks.
+ */
+public class TreeFeller implements INBTSerializable<CompoundTag> {
+    //region Fields
+    protected final LongArrayFIFOQueue frontier = new LongArrayFIFOQueue();
+    /**
+     * Positions already queued, only used to avoid queueing positions twice. Not persisted: logs are destroyed when
+     * visited, so revisiting a position after a reload just finds no log there.
+     */
+    protected final LongSet queued = new LongOpenHashSet();
+    //endregion Fields
+
+    //region Overrides
+    @Override
+    public CompoundTag serializeNBT() {
+        CompoundTag compound = new CompoundTag();
+        long[] frontier = new long[this.frontier.size()];
+        for (int i = 0; i < frontier.length; i++) {
+            long pos = this.frontier.dequeueLong();
+            frontier[i] = pos;
+            this.frontier.enqueue(pos);
+        }
+        compound.putLongArray("frontier", frontier);
+        return compound;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag compound) {
+        this.frontier.clear();
+        this.queued.clear();
+        for (long pos : compound.getLongArray("frontier")) {
+            this.enqueue(pos);
+        }
+    }
+    //endregion Overrides
+
+    //region Methods
+
+    /**
+     * Adds the tree with the given stump to the trees to fell.
+     *
+     * @param stump the lowest log of the tree.
+     */
+    public void addTree(BlockPos stump) {
+        this.enqueue(stump.asLong());
+    }
+
+    /**
+     * @return true if there are no more logs to fell.
+     */
+    public boolean isDone() {
+        return this.frontier.isEmpty();
+    }
+
+    /**
+     * Destroys up to the given amount of logs.
+     *
+     * @param level     the level.
+     * @param maxBlocks the maximum amount of logs to destroy.
+     * @return true if felling is complete.
+     */
+    public boolean tick(Level level, int maxBlocks) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int destroyed = 0;
+        while (!this.frontier.isEmpty() && destroyed < maxBlocks) {
+            pos.set(this.frontier.dequeueLong());
+
+            if (!NearestTreeSensor.isLog(level, pos)) {
+                continue;
+            }
+
+            for (Direction facing : Direction.Plane.HORIZONTAL) {
+                this.enqueue(BlockPos.offset(pos.asLong(), facing));
+            }
+
+            for (int x = 0; x < 3; x++) {
+                for (int z = 0; z < 3; z++) {
+                    this.enqueue(BlockPos.offset(pos.asLong(), -1 + x, 1, -1 + z));
+                }
+            }
+
+            level.destroyBlock(pos, true);
+            destroyed++;
+        }
+
+        if (this.frontier.isEmpty())
+            this.queued.clear();
+        return this.frontier.isEmpty();
+    }
+
+    protected void enqueue(long pos) {
+        if (this.queued.add(pos))
+            this.frontier.enqueue(pos);
+    }
+    //endregion Methods
+}
@@ -1,24 +1,24 @@
 package com.github.klikli_dev.occultism.common.entity.ai.behaviour;
 
+import com.github.klikli_dev.occultism.common.entity.ai.TreeFeller;
 import com.github.klikli_dev.occultism.common.entity.ai.sensor.NearestTreeSensor;
+import com.github.klikli_dev.occultism.common.entity.job.LumberjackJob;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.registry.OccultismMemoryTypes;
 import com.mojang.datafixers.util.Pair;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.ai.behavior.BlockPosTracker;
 import net.minecraft.world.entity.ai.memory.MemoryModuleType;
 import net.minecraft.world.entity.ai.memory.MemoryStatus;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 import net.tslat.smartbrainlib.api.core.behaviour.ExtendedBehaviour;
 import net.tslat.smartbrainlib.util.BrainUtils;
 
-import java.util.*;
+import java.util.List;
 
 public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour<E> {
     public static final double FELL_TREE_RANGE_SQUARE = Math.pow(2.5, 2); //we're comparing to square distance
@@ -94,42 +94,14 @@ public class FellTreeBehaviour<E extends SpiritEntity> extends ExtendedBehaviour
     }
 
     private void fellTree(E entity, BlockPos treePos) {
-        Level level = entity.level;
-        BlockPos base = treePos;
-        Queue<BlockPos> blocks = new ArrayDeque<>();
-        Set<BlockPos> visited = new HashSet<>();
-        blocks.add(base);
-
-        while (!blocks.isEmpty()) {
-
-            BlockPos pos = blocks.remove();
-            if (!visited.add(pos)) {
-                continue;
-            }
-
-            if (!NearestTreeSensor.isLog(level, pos)) {
-                continue;
-            }
-
-            for (Direction facing : Direction.Plane.HORIZONTAL) {
-                BlockPos pos2 = pos.relative(facing);
-                if (!visited.contains(pos2)) {
-                    blocks.add(pos2);
-                }
-            }
-
-            for (int x = 0; x < 3; x++) {
-                for (int z = 0; z < 3; z++) {
-                    BlockPos pos2 = pos.offset(-1 + x, 1, -1 + z);
-                    if (!visited.contains(pos2)) {
-                        blocks.add(pos2);
-                    }
-                }
-            }
-
-            level.destroyBlock(pos, true);
+        if (entity.getJob().orElse(null) instanceof LumberjackJob job) {
+            //the job breaks the logs over the next ticks, and keeps track of them across chunk unloads
+            job.fellTree(treePos);
+        } else {
+            TreeFeller treeFeller = new TreeFeller();
+            treeFeller.addTree(treePos);
+            treeFeller.tick(entity.level, Integer.MAX_VALUE);
         }
-
     }
 
 }
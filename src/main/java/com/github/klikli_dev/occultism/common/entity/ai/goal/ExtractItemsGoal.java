@@ -138,7 +138,7 @@ public class ExtractItemsGoal extends PausableGoal {
                                     .orElseThrow(ItemHandlerMissingException::new);
 
                     int slot = StorageUtil.getFirstMatchingSlot(blockEntityHandler,
-                            this.entity.getFilterItems().orElseThrow(ItemHandlerMissingException::new), this.entity.getTagFilter(), this.entity.isFilterBlacklist());
+                            this.entity.getFilterItems().orElseThrow(ItemHandlerMissingException::new), this.entity.getCompiledTagFilter(), this.entity.isFilterBlacklist());
                     if (slot >= 0) {
                         //simulate extraction
                         ItemStack toExtract = blockEntityHandler.extractItem(slot, Integer.MAX_VALUE, true).copy();
@@ -29,6 +29,7 @@ import com.github.klikli_dev.occultism.common.entity.ai.BlockSorter;
 import com.github.klikli_dev.occultism.common.entity.job.ManageMachineJob;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.common.misc.DepositOrder;
+import com.github.klikli_dev.occultism.common.misc.StorageProxyRegistry;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.util.Math3DUtil;
 import net.minecraft.core.BlockPos;
@@ -37,7 +38,6 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ClipContext;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
@@ -45,10 +45,7 @@ import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
 
-import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.List;
-import java.util.stream.Stream;
 
 public class ManageMachineGoal extends Goal {
     protected final SpiritEntity entity;
@@ -220,32 +217,18 @@ public class ManageMachineGoal extends Goal {
         if (this.cachedStorageAccessor != null && this.cachedStorageAccessorOrder == this.job.getCurrentDepositOrder())
             return this.cachedStorageAccessor;
 
-        Level level = this.entity.level;
-        List<BlockPos> allBlocks = new ArrayList<>();
         BlockPos machinePosition = this.job.getManagedMachine().insertGlobalPos.getPos();
 
         //get work area, but only half height, we don't need full.
         int workAreaSize = this.entity.getWorkAreaSize().getValue();
-        Stream<BlockPos> searchBlocks = BlockPos.betweenClosedStream(
-                machinePosition.offset(-workAreaSize, -workAreaSize / 2, -workAreaSize),
-                machinePosition.offset(workAreaSize, workAreaSize / 2, workAreaSize));
-        searchBlocks.forEachOrdered(pos -> {
-            BlockEntity blockEntity = level.getBlockEntity(pos);
-            if (blockEntity instanceof IStorageControllerProxy proxy) {
-                if (proxy.getLinkedStorageControllerPosition() != null &&
-                        proxy.getLinkedStorageControllerPosition().equals(this.job.getStorageControllerPosition()))
-                    allBlocks.add(pos.immutable());
-            }
-        });
+        BlockEntity closest = StorageProxyRegistry.findClosest(this.entity.level, machinePosition, workAreaSize,
+                workAreaSize / 2, this.job.getStorageControllerPosition(), this.targetSorter);
 
-        //set closest log as target
-        if (!allBlocks.isEmpty()) {
-            allBlocks.sort(this.targetSorter);
-            this.cachedStorageAccessor = level.getBlockEntity(allBlocks.get(0));
+        if (closest != null) {
+            this.cachedStorageAccessor = closest;
             this.cachedStorageAccessorOrder = this.job.getCurrentDepositOrder();
-            return this.cachedStorageAccessor;
         }
-        return null;
+        return closest;
     }
 
     private boolean startTargetingStorageController(DepositOrder depositOrder, MachineReference machineReference,
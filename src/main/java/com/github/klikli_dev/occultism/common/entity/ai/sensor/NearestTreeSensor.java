@@ -24,7 +24,6 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Sets the NEAREST_TREE memory to the closest tree in the work area.
@@ -91,20 +90,12 @@ public class NearestTreeSensor<E extends SpiritEntity> extends ExtendedSensor<E>
             }
         }
 
-        //get blocks in work area. We do /2 because we offset from the center
-        var blocksInWorkArea = BlockPos.betweenClosedStream(
+        //get potential stumps in work area from the index. We do /2 because we offset from the center
+        List<BlockPos> potentialStumps = TreeStumpIndex.getPotentialStumps(level,
                 workAreaCenter.offset(-workAreaSize / 2, -workAreaSize / 2, -workAreaSize / 2),
                 workAreaCenter.offset(workAreaSize / 2, workAreaSize / 2, workAreaSize / 2)
-        ).map(BlockPos::immutable);
-
-        //filter potential stumps
-        List<BlockPos> potentialStumps = blocksInWorkArea
-                .filter(pos -> isLog(level, pos)
-                        && isTreeSoil(level, pos.below())
-                        && !nonTreeLogs.contains(pos)
-                        && !unreachableTrees.contains(pos)
-                )
-                .collect(Collectors.toList());
+        );
+        potentialStumps.removeIf(pos -> nonTreeLogs.contains(pos) || unreachableTrees.contains(pos));
 
         //TODO: refactor to search in increaseing radiuses? (manhattan distance helper might help, or "closest match"
 
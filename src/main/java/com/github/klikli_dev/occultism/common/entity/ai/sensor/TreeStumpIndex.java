@@ -0,0 +1,168 @@
+package com.github.klikli_dev.occultism.common.entity.ai.sensor;
+
+import com.github.klikli_dev.occultism.registry.OccultismTags;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches potential tree stumps (logs on top of tree soil) per chunk section, so lumberjack spirits do not have to read
+ * every block in their work area on each scan.
+ * Sections are scanned once and then reused until a block in or next to them is placed or broken, a tree grows in
+ * them, their chunk unloads, or they reach {@link #MAX_SECTION_AGE_TICKS} to pick up changes that fire no events.
+ * Cached stumps are re-validated on lookup, so removed logs are never reported.
+ */
+public class TreeStumpIndex {
+
+    public static final int MAX_SECTION_AGE_TICKS = 20 * 60;
+
+    private static final Map<Level, Long2ObjectMap<SectionEntry>> SECTIONS = new WeakHashMap<>();
+
+    /**
+     * Gets all potential stumps within the given box.
+     *
+     * @param level the level.
+     * @param min   the minimum corner of the box (inclusive).
+     * @param max   the maximum corner of the box (inclusive).
+     * @return the potential stumps, in no particular order.
+     */
+    public static List<BlockPos> getPotentialStumps(ServerLevel level, BlockPos min, BlockPos max) {
+        Long2ObjectMap<SectionEntry> sections = SECTIONS.computeIfAbsent(level, l -> new Long2ObjectOpenHashMap<>());
+        long gameTime = level.getGameTime();
+        List<BlockPos> stumps = new ArrayList<>();
+
+        int minSectionY = Math.max(SectionPos.blockToSectionCoord(min.getY()), level.getMinSection());
+        int maxSectionY = Math.min(SectionPos.blockToSectionCoord(max.getY()), level.getMaxSection() - 1);
+        for (int sectionX = SectionPos.blockToSectionCoord(min.getX()); sectionX <= SectionPos.blockToSectionCoord(max.getX()); sectionX++) {
+            for (int sectionZ = SectionPos.blockToSectionCoord(min.getZ()); sectionZ <= SectionPos.blockToSectionCoord(max.getZ()); sectionZ++) {
+                //do not load chunks just to look for trees
+                LevelChunk chunk = level.getChunkSource().getChunkNow(sectionX, sectionZ);
+                if (chunk == null)
+                    continue;
+
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    long sectionKey = SectionPos.asLong(sectionX, sectionY, sectionZ);
+                    SectionEntry entry = sections.get(sectionKey);
+                    if (entry == null || gameTime - entry.scannedAt > MAX_SECTION_AGE_TICKS) {
+                        entry = scanSection(level, chunk, sectionX, sectionY, sectionZ, gameTime);
+                        sections.put(sectionKey, entry);
+                    }
+
+                    for (int i = 0; i < entry.stumps.size(); i++) {
+                        BlockPos pos = BlockPos.of(entry.stumps.getLong(i));
+                        if (pos.getX() < min.getX() || pos.getY() < min.getY() || pos.getZ() < min.getZ() ||
+                                pos.getX() > max.getX() || pos.getY() > max.getY() || pos.getZ() > max.getZ())
+                            continue;
+
+                        if (NearestTreeSensor.isLog(level, pos) && NearestTreeSensor.isTreeSoil(level, pos.below()))
+                            stumps.add(pos);
+                    }
+                }
+            }
+        }
+        return stumps;
+    }
+
+    /**
+     * Invalidates the cached sections around the given position. Call when a block is placed or broken.
+     *
+     * @param level the level.
+     * @param pos   the changed position.
+     */
+    public static void invalidate(Level level, BlockPos pos) {
+        //a changed block may also turn the block above it into a stump, which may be in the next section.
+        invalidate(level, pos, pos.above());
+    }
+
+    /**
+     * Invalidates all cached sections intersecting the given box.
+     *
+     * @param level the level.
+     * @param min   the minimum corner of the box (inclusive).
+     * @param max   the maximum corner of the box (inclusive).
+     */
+    public static void invalidate(Level level, BlockPos min, BlockPos max) {
+        if (level.isClientSide)
+            return;
+
+        Long2ObjectMap<SectionEntry> sections = SECTIONS.get(level);
+        if (sections == null || sections.isEmpty())
+            return;
+
+        for (int sectionX = SectionPos.blockToSectionCoord(min.getX()); sectionX <= SectionPos.blockToSectionCoord(max.getX()); sectionX++) {
+            for (int sectionY = SectionPos.blockToSectionCoord(min.getY()); sectionY <= SectionPos.blockToSectionCoord(max.getY()); sectionY++) {
+                for (int sectionZ = SectionPos.blockToSectionCoord(min.getZ()); sectionZ <= SectionPos.blockToSectionCoord(max.getZ()); sectionZ++) {
+                    sections.remove(SectionPos.asLong(sectionX, sectionY, sectionZ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all cached sections of the given chunk. Call when the chunk is unloaded.
+     *
+     * @param level    the level.
+     * @param chunkPos the chunk.
+     */
+    public static void invalidateChunk(Level level, ChunkPos chunkPos) {
+        if (level.isClientSide)
+            return;
+
+        invalidate(level,
+                new BlockPos(chunkPos.getMinBlockX(), level.getMinBuildHeight(), chunkPos.getMinBlockZ()),
+                new BlockPos(chunkPos.getMaxBlockX(), level.getMaxBuildHeight() - 1, chunkPos.getMaxBlockZ()));
+    }
+
+    protected static SectionEntry scanSection(ServerLevel level, LevelChunk chunk, int sectionX, int sectionY,
+                                              int sectionZ, long gameTime) {
+        SectionEntry entry = new SectionEntry(gameTime);
+        LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(sectionY));
+
+        //the palette tells us if the section can contain logs at all, which rules out most sections without reading blocks.
+        if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(BlockTags.LOGS)))
+            return entry;
+
+        int minX = SectionPos.sectionToBlockCoord(sectionX);
+        int minY = SectionPos.sectionToBlockCoord(sectionY);
+        int minZ = SectionPos.sectionToBlockCoord(sectionZ);
+        BlockPos.MutableBlockPos below = new BlockPos.MutableBlockPos();
+        for (int y = 0; y < SectionPos.SECTION_SIZE; y++) {
+            for (int z = 0; z < SectionPos.SECTION_SIZE; z++) {
+                for (int x = 0; x < SectionPos.SECTION_SIZE; x++) {
+                    if (!section.getBlockState(x, y, z).is(BlockTags.LOGS))
+                        continue;
+
+                    BlockState soil = y > 0 ? section.getBlockState(x, y - 1, z) :
+                            level.getBlockState(below.set(minX + x, minY - 1, minZ + z));
+                    if (soil.is(OccultismTags.TREE_SOIL))
+                        entry.stumps.add(BlockPos.asLong(minX + x, minY + y, minZ + z));
+                }
+            }
+        }
+        return entry;
+    }
+
+    protected static class SectionEntry {
+        protected final long scannedAt;
+        protected final LongList stumps = new LongArrayList();
+
+        public SectionEntry(long scannedAt) {
+            this.scannedAt = scannedAt;
+        }
+    }
+}
@@ -23,6 +23,7 @@
 package com.github.klikli_dev.occultism.common.entity.familiar;
 
 import com.github.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.github.klikli_dev.occultism.common.misc.NearbyEntityCache;
 import com.github.klikli_dev.occultism.registry.OccultismAdvancements;
 import com.github.klikli_dev.occultism.registry.OccultismEffects;
 import net.minecraft.core.BlockPos;
@@ -176,6 +177,11 @@ public class BatFamiliarEntity extends FamiliarEntity implements FlyingAnimal {
 
     private static class CannibalismGoal extends Goal {
 
+        /**
+         * Ticks between searches for nearby bats, goals are checked every tick.
+         */
+        private static final int BAT_QUERY_INTERVAL = 10;
+
         BatFamiliarEntity bat;
         Bat nearby;
 
@@ -199,7 +205,7 @@ public class BatFamiliarEntity extends FamiliarEntity implements FlyingAnimal {
 
         private Bat nearbyBat() {
             Bat nearby = null;
-            List<Bat> bats = this.bat.level.getEntitiesOfClass(Bat.class, this.bat.getBoundingBox().inflate(2));
+            List<Bat> bats = NearbyEntityCache.getEntitiesOfClass(this.bat, Bat.class, 2, BAT_QUERY_INTERVAL, e -> true);
             if (!bats.isEmpty())
                 nearby = bats.get(0);
             return nearby;
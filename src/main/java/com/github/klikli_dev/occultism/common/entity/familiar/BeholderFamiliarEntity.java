@@ -23,6 +23,7 @@
 package com.github.klikli_dev.occultism.common.entity.familiar;
 
 import com.github.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.github.klikli_dev.occultism.common.misc.NearbyEntityCache;
 import com.github.klikli_dev.occultism.network.MessageBeholderAttack;
 import com.github.klikli_dev.occultism.network.OccultismPackets;
 import com.github.klikli_dev.occultism.registry.OccultismAdvancements;
@@ -171,8 +172,7 @@ public class BeholderFamiliarEntity extends ColoredFamiliarEntity {
         if (!this.isEffectEnabled(owner))
             return;
 
-        List<LivingEntity> nearby = owner.level.getEntitiesOfClass(LivingEntity.class,
-                owner.getBoundingBox().inflate(10),
+        List<LivingEntity> nearby = NearbyEntityCache.getEntitiesOfClass(owner, LivingEntity.class, 10, 20,
                 e -> !(e instanceof Player) && e != owner && e != this && !e.hasEffect(MobEffects.GLOWING));
         if (nearby.isEmpty())
             return;
@@ -23,6 +23,7 @@
 package com.github.klikli_dev.occultism.common.entity.familiar;
 
 import com.github.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.github.klikli_dev.occultism.common.misc.NearbyEntityCache;
 import com.github.klikli_dev.occultism.registry.OccultismAdvancements;
 import com.github.klikli_dev.occultism.registry.OccultismEffects;
 import com.github.klikli_dev.occultism.registry.OccultismEntities;
@@ -316,6 +317,11 @@ public class DragonFamiliarEntity extends FamiliarEntity {
 
     private static class FetchGoal extends Goal {
 
+        /**
+         * Ticks between searches for sticks, goals are checked every tick.
+         */
+        private static final int STICK_QUERY_INTERVAL = 10;
+
         private final DragonFamiliarEntity dragon;
         private ItemEntity stick;
 
@@ -363,8 +369,8 @@ public class DragonFamiliarEntity extends FamiliarEntity {
         }
 
         private ItemEntity findStick() {
-            List<ItemEntity> sticks = this.dragon.level.getEntitiesOfClass(ItemEntity.class,
-                    this.dragon.getBoundingBox().inflate(8), e -> e.getItem().getItem() == Items.STICK && e.isAlive());
+            List<ItemEntity> sticks = NearbyEntityCache.getEntitiesOfClass(this.dragon, ItemEntity.class, 8,
+                    STICK_QUERY_INTERVAL, e -> e.getItem().getItem() == Items.STICK && e.isAlive());
             return sticks.isEmpty() ? null : sticks.get(0);
         }
 
@@ -57,6 +57,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.ServerLevelAccessor;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec2;
 import net.minecraft.world.phys.Vec3;
 
@@ -383,9 +384,14 @@ public class FairyFamiliarEntity extends FamiliarEntity implements FlyingAnimal
             if (owner == null)
                 return;
 
-            List<Mob> familiars = this.fairy.level.getEntitiesOfClass(Mob.class,
-                    this.fairy.getBoundingBox().inflate(10),
-                    e -> e != this.fairy && e instanceof IFamiliar && ((IFamiliar) e).getFamiliarOwner() == owner);
+            //the owner's familiars are known, no need to search the level for them
+            AABB area = this.fairy.getBoundingBox().inflate(10);
+            List<Mob> familiars = new ArrayList<>();
+            for (Entity e : FamiliarRegistry.getSpawnedFamiliars(owner)) {
+                if (e != this.fairy && e instanceof Mob mob && e.level == this.fairy.level &&
+                        e.getBoundingBox().intersects(area) && ((IFamiliar) e).getFamiliarOwner() == owner)
+                    familiars.add(mob);
+            }
 
             for (Mob familiar : familiars) {
                 UUID id = familiar.getUUID();
@@ -166,6 +166,19 @@ public abstract class FamiliarEntity extends PathfinderMob implements IFamiliar
 
     private void setOwnerId(UUID id) {
         this.entityData.set(OWNER_UNIQUE_ID, Optional.ofNullable(id));
+        FamiliarRegistry.onOwnerChanged(this);
+    }
+
+    @Override
+    public void onAddedToWorld() {
+        super.onAddedToWorld();
+        FamiliarRegistry.onAddedToWorld(this);
+    }
+
+    @Override
+    public void onRemovedFromWorld() {
+        super.onRemovedFromWorld();
+        FamiliarRegistry.onRemovedFromWorld(this);
     }
 
     @Override
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.entity.familiar;
+
+import com.github.klikli_dev.occultism.common.item.tool.FamiliarRingItem;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.TamableAnimal;
+import top.theillusivec4.curios.api.CuriosApi;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Keeps track of the familiars of each owner, so familiar effects can be looked up without scanning the level for
+ * familiar entities or deserializing the familiars in equipped familiar rings.
+ * Spawned familiars are tracked while they are added to a level, i.e. between {@link Entity#onAddedToWorld()} and
+ * {@link Entity#onRemovedFromWorld()}, which fire in pairs when the entity starts and stops being tracked. They are
+ * re-keyed when their owner changes.
+ * Equipped familiars are collected once per owner and dropped when the owner's curios change.
+ * Only server side entities are tracked.
+ */
+public class FamiliarRegistry {
+
+    //region Fields
+    private static final Set<Entity> SPAWNED = new LinkedHashSet<>();
+    private static final Map<UUID, Set<Entity>> SPAWNED_BY_OWNER = new HashMap<>();
+    private static final Map<Entity, UUID> SPAWNED_OWNERS = new HashMap<>();
+    /**
+     * Familiars of unknown types that do not expose an owner id, they are candidates for every owner.
+     */
+    private static final Set<Entity> SPAWNED_UNKEYED = new LinkedHashSet<>();
+    private static final Map<LivingEntity, List<IFamiliar>> EQUIPPED = new WeakHashMap<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Registers the given familiar. Call from {@link Entity#onAddedToWorld()} of the familiar entity.
+     *
+     * @param entity the familiar entity.
+     */
+    public static void onAddedToWorld(Entity entity) {
+        if (entity instanceof IFamiliar && !entity.level.isClientSide && !SPAWNED.contains(entity))
+            track(entity);
+    }
+
+    /**
+     * Unregisters the given familiar. Call from {@link Entity#onRemovedFromWorld()} of the familiar entity.
+     *
+     * @param entity the familiar entity.
+     */
+    public static void onRemovedFromWorld(Entity entity) {
+        if (!entity.level.isClientSide)
+            untrack(entity);
+    }
+
+    /**
+     * Drops the equipped familiars of the given entity, they are collected again when needed. Call when the entity
+     * leaves a level.
+     *
+     * @param entity the entity.
+     */
+    public static void onEntityLeave(Entity entity) {
+        if (!entity.level.isClientSide && entity instanceof LivingEntity livingEntity)
+            EQUIPPED.remove(livingEntity);
+    }
+
+    /**
+     * Updates the owner of the given familiar. Call whenever the owner of a familiar entity is set.
+     *
+     * @param entity the familiar entity.
+     */
+    public static void onOwnerChanged(Entity entity) {
+        if (!entity.level.isClientSide && SPAWNED.contains(entity)) {
+            untrack(entity);
+            track(entity);
+        }
+    }
+
+    /**
+     * Drops the equipped familiars of the given owner, call when the owner's curios change.
+     *
+     * @param owner the owner.
+     */
+    public static void onEquipmentChanged(LivingEntity owner) {
+        EQUIPPED.remove(owner);
+    }
+
+    /**
+     * Removes all familiars, call when the server stops.
+     */
+    public static void clear() {
+        SPAWNED.clear();
+        SPAWNED_BY_OWNER.clear();
+        SPAWNED_OWNERS.clear();
+        SPAWNED_UNKEYED.clear();
+        EQUIPPED.clear();
+    }
+
+    /**
+     * Gets the familiar entities in any level that may belong to the given owner. Callers still need to verify the
+     * owner, level and position. Do not modify the result.
+     *
+     * @param owner the owner.
+     * @return the familiar entities.
+     */
+    public static Collection<Entity> getSpawnedFamiliars(LivingEntity owner) {
+        Set<Entity> familiars = SPAWNED_BY_OWNER.getOrDefault(owner.getUUID(), Collections.emptySet());
+        if (SPAWNED_UNKEYED.isEmpty())
+            return familiars;
+
+        List<Entity> candidates = new ArrayList<>(familiars);
+        candidates.addAll(SPAWNED_UNKEYED);
+        return candidates;
+    }
+
+    /**
+     * Gets all familiar entities in any level. Do not modify the result.
+     *
+     * @return the familiar entities.
+     */
+    public static Collection<Entity> getAllSpawnedFamiliars() {
+        return Collections.unmodifiableCollection(SPAWNED);
+    }
+
+    /**
+     * Gets the familiars in the familiar rings equipped by the given owner. Do not modify the result.
+     *
+     * @param owner the owner.
+     * @return the equipped familiars.
+     */
+    public static List<IFamiliar> getEquippedFamiliars(LivingEntity owner) {
+        return EQUIPPED.computeIfAbsent(owner, FamiliarRegistry::collectEquippedFamiliars);
+    }
+
+    /**
+     * Collects the familiars in the familiar rings equipped by the given owner by walking the owner's curios.
+     *
+     * @param owner the owner.
+     * @return the equipped familiars.
+     */
+    public static List<IFamiliar> collectEquippedFamiliars(LivingEntity owner) {
+        List<IFamiliar> familiars = new ArrayList<>();
+        var curios = CuriosApi.getCuriosHelper().getEquippedCurios(owner).orElse(null);
+        if (curios == null)
+            return familiars;
+
+        for (int i = 0; i < curios.getSlots(); i++) {
+            IFamiliar familiar = FamiliarRingItem.getFamiliar(curios.getStackInSlot(i), owner.level);
+            if (familiar != null)
+                familiars.add(familiar);
+        }
+        return familiars;
+    }
+
+    private static void track(Entity entity) {
+        SPAWNED.add(entity);
+        if (!(entity instanceof FamiliarEntity) && !(entity instanceof TamableAnimal)) {
+            SPAWNED_UNKEYED.add(entity);
+            return;
+        }
+
+        UUID ownerId = getOwnerId(entity);
+        if (ownerId != null) {
+            SPAWNED_OWNERS.put(entity, ownerId);
+            SPAWNED_BY_OWNER.computeIfAbsent(ownerId, id -> new LinkedHashSet<>()).add(entity);
+        }
+    }
+
+    private static void untrack(Entity entity) {
+        SPAWNED.remove(entity);
+        SPAWNED_UNKEYED.remove(entity);
+        UUID ownerId = SPAWNED_OWNERS.remove(entity);
+        if (ownerId == null)
+            return;
+
+        Set<Entity> familiars = SPAWNED_BY_OWNER.get(ownerId);
+        if (familiars != null) {
+            familiars.remove(entity);
+            if (familiars.isEmpty())
+                SPAWNED_BY_OWNER.remove(ownerId);
+        }
+    }
+
+    @Nullable
+    private static UUID getOwnerId(Entity entity) {
+        if (entity instanceof FamiliarEntity familiar)
+            return familiar.getOwnerId();
+        if (entity instanceof TamableAnimal tamable)
+            return tamable.getOwnerUUID();
+        return null;
+    }
+    //endregion Static Methods
+}
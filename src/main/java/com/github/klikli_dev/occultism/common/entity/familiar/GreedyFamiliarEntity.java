@@ -23,6 +23,7 @@
 package com.github.klikli_dev.occultism.common.entity.familiar;
 
 import com.github.klikli_dev.occultism.common.advancement.FamiliarTrigger;
+import com.github.klikli_dev.occultism.common.misc.NearbyEntityCache;
 import com.github.klikli_dev.occultism.registry.OccultismAdvancements;
 import com.github.klikli_dev.occultism.registry.OccultismEntities;
 import com.google.common.collect.ImmutableList;
@@ -56,6 +57,10 @@ import java.util.Optional;
 
 public class GreedyFamiliarEntity extends FamiliarEntity {
 
+    /**
+     * Ticks between searches for new items to pick up while equipped, items already found are picked up every tick.
+     */
+    private static final int PICKUP_QUERY_INTERVAL = 5;
     private static final EntityDataAccessor<Optional<BlockPos>> TARGET_BLOCK = SynchedEntityData
             .defineId(GreedyFamiliarEntity.class, EntityDataSerializers.OPTIONAL_BLOCK_POS);
 
@@ -106,7 +111,7 @@ public class GreedyFamiliarEntity extends FamiliarEntity {
             return;
 
         if (this.isEffectEnabled(wearer))
-            for (ItemEntity e : wearer.level.getEntitiesOfClass(ItemEntity.class, wearer.getBoundingBox().inflate(5), Entity::isAlive)) {
+            for (ItemEntity e : NearbyEntityCache.getEntitiesOfClass(wearer, ItemEntity.class, 5, PICKUP_QUERY_INTERVAL, Entity::isAlive)) {
                 ItemStack stack = e.getItem();
 
                 boolean isStackDemagnetized = stack.hasTag() && stack.getTag().getBoolean("PreventRemoteMovement");
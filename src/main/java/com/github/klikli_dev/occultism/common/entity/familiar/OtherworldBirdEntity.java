@@ -98,6 +98,19 @@ public class OtherworldBirdEntity extends Parrot implements IFamiliar {
     @Override
     public void setOwnerUUID(@Nullable UUID ownerId) {
         super.setOwnerUUID(ownerId);
+        FamiliarRegistry.onOwnerChanged(this);
+    }
+
+    @Override
+    public void onAddedToWorld() {
+        super.onAddedToWorld();
+        FamiliarRegistry.onAddedToWorld(this);
+    }
+
+    @Override
+    public void onRemovedFromWorld() {
+        super.onRemovedFromWorld();
+        FamiliarRegistry.onRemovedFromWorld(this);
     }
 
     @Override
@@ -26,6 +26,7 @@ import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.common.entity.ai.goal.PickupItemsGoal;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
 import com.github.klikli_dev.occultism.crafting.recipe.CrushingRecipe;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeIndex;
 import com.github.klikli_dev.occultism.crafting.recipe.TieredItemStackFakeInventory;
 import com.github.klikli_dev.occultism.registry.OccultismRecipes;
 import com.github.klikli_dev.occultism.registry.OccultismSounds;
@@ -36,14 +37,10 @@ import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.phys.Vec3;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 public class CrusherJob extends SpiritJob {
 
@@ -60,9 +57,6 @@ public class CrusherJob extends SpiritJob {
     protected Optional<CrushingRecipe> currentRecipe = Optional.empty();
     protected PickupItemsGoal pickupItemsGoal;
 
-    protected List<Ingredient> itemsToPickUp = new ArrayList<>();
-
-
     public CrusherJob(SpiritEntity entity, Supplier<Float> crushingTimeMultiplier, Supplier<Float> outputMultiplier, Supplier<Integer> tier) {
         super(entity);
         this.crushingTimeMultiplier = crushingTimeMultiplier;
@@ -73,12 +67,6 @@ public class CrusherJob extends SpiritJob {
     @Override
     public void onInit() {
         this.entity.targetSelector.addGoal(1, this.pickupItemsGoal = new PickupItemsGoal(this.entity));
-        this.itemsToPickUp = this.entity.level.getRecipeManager().getRecipes().stream()
-                .filter(
-                        recipe -> recipe.getType() == OccultismRecipes.CRUSHING_TYPE.get()
-                                && ((CrushingRecipe) recipe).getMinTier() <= this.tier.get()
-                )
-                .flatMap(recipe -> recipe.getIngredients().stream()).collect(Collectors.toList());
     }
 
     @Override
@@ -92,8 +80,7 @@ public class CrusherJob extends SpiritJob {
         var fakeInventory = new TieredItemStackFakeInventory(handHeld, this.tier.get());
 
         if (!this.currentRecipe.isPresent() && !handHeld.isEmpty()) {
-            this.currentRecipe = this.entity.level.getRecipeManager().getRecipeFor(OccultismRecipes.CRUSHING_TYPE.get(),
-                    fakeInventory, this.entity.level);
+            this.currentRecipe = this.findRecipe(fakeInventory);
             this.crushingTimer = 0;
 
             if (this.currentRecipe.isPresent()) {
@@ -179,7 +166,24 @@ public class CrusherJob extends SpiritJob {
             return false; //cannot pick up items a crusher (most likely *this* one) dropped util delay elapsed.
 
         ItemStack stack = entity.getItem();
-        return !stack.isEmpty() && this.itemsToPickUp.stream().anyMatch(i -> i.test(stack));
+        return !stack.isEmpty() && this.findRecipe(new TieredItemStackFakeInventory(stack, this.tier.get())).isPresent();
+    }
+
+    /**
+     * Finds the first crushing recipe for the item in the given inventory that this crusher's tier can process.
+     * Only recipes accepting the item are tested, see {@link ItemRecipeIndex}.
+     *
+     * @param fakeInventory the inventory holding the item to crush.
+     * @return the recipe, or empty if the item cannot be crushed by this crusher.
+     */
+    public Optional<CrushingRecipe> findRecipe(TieredItemStackFakeInventory fakeInventory) {
+        ItemRecipeIndex<CrushingRecipe> index = ItemRecipeIndex.get(this.entity.level,
+                OccultismRecipes.CRUSHING_TYPE.get(), recipe -> recipe.getIngredients().get(0));
+        for (CrushingRecipe recipe : index.getCandidates(fakeInventory.getItem(0))) {
+            if (recipe.matches(fakeInventory, this.entity.level))
+                return Optional.of(recipe);
+        }
+        return Optional.empty();
     }
 
 
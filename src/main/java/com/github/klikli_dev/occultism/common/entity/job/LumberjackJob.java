@@ -22,7 +22,9 @@
 
 package com.github.klikli_dev.occultism.common.entity.job;
 
+import com.github.klikli_dev.occultism.Occultism;
 import com.github.klikli_dev.occultism.api.common.container.IItemStackComparator;
+import com.github.klikli_dev.occultism.common.entity.ai.TreeFeller;
 import com.github.klikli_dev.occultism.common.entity.ai.behaviour.*;
 import com.github.klikli_dev.occultism.common.entity.ai.sensor.NearestJobItemSensor;
 import com.github.klikli_dev.occultism.common.entity.ai.sensor.NearestTreeSensor;
@@ -33,6 +35,8 @@ import com.github.klikli_dev.occultism.common.misc.ItemTagComparator;
 import com.github.klikli_dev.occultism.registry.OccultismMemoryTypes;
 import com.github.klikli_dev.occultism.registry.OccultismTags;
 import com.google.common.collect.ImmutableList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.tags.ItemTags;
 import net.minecraft.world.entity.EntityDimensions;
 import net.minecraft.world.entity.Pose;
@@ -54,6 +58,7 @@ public class LumberjackJob extends SpiritJob {
 
     protected EntityDimensions lumberJackDimensions;
     protected List<IItemStackComparator> itemsToPickUp = new ArrayList<>();
+    protected TreeFeller treeFeller = new TreeFeller();
 
     public LumberjackJob(SpiritEntity entity) {
         super(entity);
@@ -129,6 +134,27 @@ public class LumberjackJob extends SpiritJob {
         this.entity.refreshDimensions();
     }
 
+    @Override
+    public void update() {
+        if (!this.treeFeller.isDone()) {
+            this.treeFeller.tick(this.entity.level, Occultism.SERVER_CONFIG.spiritJobs.lumberjackLogsPerTick.get());
+        }
+    }
+
+    @Override
+    public CompoundTag writeJobToNBT(CompoundTag compound) {
+        if (!this.treeFeller.isDone())
+            compound.put("treeFeller", this.treeFeller.serializeNBT());
+        return super.writeJobToNBT(compound);
+    }
+
+    @Override
+    public void readJobFromNBT(CompoundTag compound) {
+        super.readJobFromNBT(compound);
+        if (compound.contains("treeFeller"))
+            this.treeFeller.deserializeNBT(compound.getCompound("treeFeller"));
+    }
+
     @Override
     public boolean canPickupItem(ItemEntity entity) {
 
@@ -152,4 +178,13 @@ public class LumberjackJob extends SpiritJob {
         BrainUtils.clearMemory(this.entity, OccultismMemoryTypes.UNREACHABLE_TREES.get());
         BrainUtils.clearMemory(this.entity, OccultismMemoryTypes.NON_TREE_LOGS.get());
     }
+
+    /**
+     * Starts felling the tree with the given stump. The logs are broken over the next ticks in {@link #update()}.
+     *
+     * @param stump the lowest log of the tree.
+     */
+    public void fellTree(BlockPos stump) {
+        this.treeFeller.addTree(stump);
+    }
 }
@@ -26,6 +26,7 @@ import com.github.klikli_dev.occultism.api.common.data.WorkAreaSize;
 import com.github.klikli_dev.occultism.common.container.spirit.SpiritContainer;
 import com.github.klikli_dev.occultism.common.entity.job.SpiritJob;
 import com.github.klikli_dev.occultism.common.item.spirit.BookOfCallingItem;
+import com.github.klikli_dev.occultism.common.misc.ItemTagFilter;
 import com.github.klikli_dev.occultism.exceptions.ItemHandlerMissingException;
 import com.github.klikli_dev.occultism.registry.OccultismMemoryTypes;
 import com.github.klikli_dev.occultism.registry.OccultismSounds;
@@ -145,6 +146,10 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
     });
     protected Optional<SpiritJob> job = Optional.empty();
     protected boolean isInitialized = false;
+    /**
+     * The parsed tag filter, kept in sync with the tag filter string.
+     */
+    protected ItemTagFilter compiledTagFilter = ItemTagFilter.EMPTY;
 
     public SpiritEntity(EntityType<? extends SpiritEntity> type, Level worldIn) {
         this(type, worldIn, new ItemStackHandler(1));
@@ -212,6 +217,10 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
                 });
             }
         }
+
+        if (key == TAG_FILTER) {
+            this.compiledTagFilter = ItemTagFilter.of(this.entityData.get(TAG_FILTER));
+        }
     }
 
     public <T> LazyOptional<T> getCapability(Capability<T> capability, @Nullable Direction facing) {
@@ -372,6 +381,13 @@ public abstract class SpiritEntity extends TamableAnimal implements ISkinnedCrea
         this.entityData.set(TAG_FILTER, tagFilter);
     }
 
+    /**
+     * Gets the parsed tag filter
+     */
+    public ItemTagFilter getCompiledTagFilter() {
+        return this.compiledTagFilter;
+    }
+
     /**
      * @return the filter mode
      */
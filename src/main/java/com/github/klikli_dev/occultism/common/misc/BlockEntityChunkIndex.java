@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import java.util.*;
+
+/**
+ * Keeps track of loaded block entities per level, bucketed by chunk, so block entities near a position can be found
+ * without calling getBlockEntity for every position in the area.
+ * Only server side block entities are tracked. Block entities add themselves on load and remove themselves when
+ * removed or when their chunk is unloaded.
+ */
+public class BlockEntityChunkIndex<T extends BlockEntity> {
+
+    //region Fields
+    private final Map<Level, Long2ObjectMap<Set<T>>> blockEntities = new WeakHashMap<>();
+    //endregion Fields
+
+    //region Methods
+
+    /**
+     * Adds the given block entity. Call when the block entity is loaded.
+     *
+     * @param blockEntity the block entity.
+     */
+    public void add(T blockEntity) {
+        Level level = blockEntity.getLevel();
+        if (level == null || level.isClientSide)
+            return;
+
+        this.blockEntities.computeIfAbsent(level, l -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.asLong(blockEntity.getBlockPos()), key -> new HashSet<>())
+                .add(blockEntity);
+    }
+
+    /**
+     * Removes the given block entity. Call when the block entity is removed or its chunk is unloaded.
+     *
+     * @param blockEntity the block entity.
+     */
+    public void remove(T blockEntity) {
+        Level level = blockEntity.getLevel();
+        if (level == null || level.isClientSide)
+            return;
+
+        Long2ObjectMap<Set<T>> chunks = this.blockEntities.get(level);
+        if (chunks == null)
+            return;
+
+        long chunk = ChunkPos.asLong(blockEntity.getBlockPos());
+        Set<T> chunkBlockEntities = chunks.get(chunk);
+        if (chunkBlockEntities != null) {
+            chunkBlockEntities.remove(blockEntity);
+            if (chunkBlockEntities.isEmpty())
+                chunks.remove(chunk);
+        }
+    }
+
+    /**
+     * Gets all tracked block entities within the given box.
+     * The result is a new list, so callers may modify it, and tracked block entities may be added or removed while
+     * iterating it.
+     *
+     * @param level the level.
+     * @param min   the minimum corner of the box (inclusive).
+     * @param max   the maximum corner of the box (inclusive).
+     * @return the block entities in the box, in no particular order.
+     */
+    public List<T> getInBox(Level level, BlockPos min, BlockPos max) {
+        Long2ObjectMap<Set<T>> chunks = this.blockEntities.get(level);
+        if (chunks == null || chunks.isEmpty())
+            return new ArrayList<>();
+
+        List<T> result = new ArrayList<>();
+        for (int chunkX = SectionPos.blockToSectionCoord(min.getX()); chunkX <= SectionPos.blockToSectionCoord(max.getX()); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(min.getZ()); chunkZ <= SectionPos.blockToSectionCoord(max.getZ()); chunkZ++) {
+                Set<T> chunkBlockEntities = chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (chunkBlockEntities == null)
+                    continue;
+
+                for (T blockEntity : chunkBlockEntities) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    if (!blockEntity.isRemoved() &&
+                            pos.getX() >= min.getX() && pos.getY() >= min.getY() && pos.getZ() >= min.getZ() &&
+                            pos.getX() <= max.getX() && pos.getY() <= max.getY() && pos.getZ() <= max.getZ())
+                        result.add(blockEntity);
+                }
+            }
+        }
+        return result;
+    }
+    //endregion Methods
+}
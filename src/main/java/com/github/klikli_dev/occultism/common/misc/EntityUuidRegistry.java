@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps track of all entities in server levels by uuid, so entities can be resolved without asking each level.
+ * Entities are added when they join a level and removed when they leave it. An entity changing dimensions is replaced
+ * by a copy with the same uuid, so removal only affects the registered instance.
+ * Entities leave a level when their chunk stops being tracked, but do not join it again when tracking resumes, so
+ * lookups that miss fall back to asking each level and register the entity found.
+ * Only accessed from the server thread.
+ */
+public class EntityUuidRegistry {
+
+    //region Fields
+    private static final Map<UUID, Entity> ENTITIES = new HashMap<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Registers the given entity. Call when the entity joins a server level.
+     *
+     * @param entity the entity.
+     */
+    public static void register(Entity entity) {
+        if (!entity.level.isClientSide)
+            ENTITIES.put(entity.getUUID(), entity);
+    }
+
+    /**
+     * Unregisters the given entity if it is the instance registered for its uuid. Call when the entity leaves a
+     * server level.
+     *
+     * @param entity the entity.
+     */
+    public static void unregister(Entity entity) {
+        if (!entity.level.isClientSide)
+            ENTITIES.remove(entity.getUUID(), entity);
+    }
+
+    /**
+     * Removes all entities, call when the server stops.
+     */
+    public static void clear() {
+        ENTITIES.clear();
+    }
+
+    /**
+     * Gets the loaded entity with the given uuid in any server level.
+     *
+     * @param uuid the uuid of the entity.
+     * @return Optional containing the entity.
+     */
+    public static Optional<Entity> getEntity(@Nullable UUID uuid) {
+        if (uuid == null)
+            return Optional.empty();
+
+        Entity entity = ENTITIES.get(uuid);
+        if (entity == null || entity.isRemoved()) {
+            entity = findEntity(uuid);
+            if (entity == null)
+                return Optional.empty();
+            ENTITIES.put(uuid, entity);
+        }
+        return Optional.of(entity);
+    }
+
+    /**
+     * Gets the loaded spirit with the given uuid in any server level.
+     *
+     * @param uuid the uuid of the spirit.
+     * @return Optional containing the spirit, empty if the entity is not loaded or is not a spirit.
+     */
+    public static Optional<SpiritEntity> getSpirit(@Nullable UUID uuid) {
+        return getEntity(uuid).filter(SpiritEntity.class::isInstance).map(SpiritEntity.class::cast);
+    }
+
+    /**
+     * Gets the dimension the loaded entity with the given uuid is in.
+     *
+     * @param uuid the uuid of the entity.
+     * @return Optional containing the dimension.
+     */
+    public static Optional<ResourceKey<Level>> getDimension(@Nullable UUID uuid) {
+        return getEntity(uuid).map(entity -> entity.level.dimension());
+    }
+
+    @Nullable
+    private static Entity findEntity(UUID uuid) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null)
+            return null;
+
+        for (ServerLevel level : server.getAllLevels()) {
+            Entity entity = level.getEntity(uuid);
+            if (entity != null)
+                return entity;
+        }
+        return null;
+    }
+    //endregion Static Methods
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Immutable identity of an item stack, ignoring the count. Two stacks with equal keys are the same item with the same
+ * nbt and thus (apart from capabilities) stackable.
+ */
+public final class ItemStackKey {
+
+    //region Fields
+    private final Item item;
+    @Nullable
+    private final CompoundTag tag;
+    private final int hash;
+    //endregion Fields
+
+    //region Initialization
+    private ItemStackKey(Item item, @Nullable CompoundTag tag) {
+        this.item = item;
+        this.tag = tag;
+        this.hash = 31 * item.hashCode() + (tag == null ? 0 : tag.hashCode());
+    }
+    //endregion Initialization
+
+    //region Static Methods
+
+    /**
+     * Creates a key for the given stack. The nbt is copied so later changes to the stack do not affect the key.
+     *
+     * @param stack the stack, must not be empty.
+     * @return the key.
+     */
+    public static ItemStackKey of(@Nonnull ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        return new ItemStackKey(stack.getItem(), tag == null ? null : tag.copy());
+    }
+    //endregion Static Methods
+
+    //region Getter / Setter
+    public Item getItem() {
+        return this.item;
+    }
+
+    @Nullable
+    public CompoundTag getTag() {
+        return this.tag;
+    }
+    //endregion Getter / Setter
+
+    //region Overrides
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ItemStackKey other))
+            return false;
+        return this.hash == other.hash && this.item == other.item && Objects.equals(this.tag, other.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+    //endregion Overrides
+
+    //region Methods
+
+    /**
+     * @param stack the stack to check.
+     * @return true if the given stack has the same item and nbt as this key.
+     */
+    public boolean matches(@Nonnull ItemStack stack) {
+        return !stack.isEmpty() && stack.getItem() == this.item && Objects.equals(stack.getTag(), this.tag);
+    }
+
+    /**
+     * @param count the desired stack size.
+     * @return a new item stack for this key.
+     */
+    public ItemStack toStack(int count) {
+        ItemStack stack = new ItemStack(this.item, count);
+        if (this.tag != null)
+            stack.setTag(this.tag.copy());
+        return stack;
+    }
+    //endregion Methods
+}
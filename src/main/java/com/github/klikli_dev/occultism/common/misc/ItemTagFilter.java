@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
+import it.unimi.dsi.fastutil.objects.Reference2BooleanOpenHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed tag filter string as used by spirits, e.g. "forge:ingots/*;item:minecraft:stone".
+ * Entries are separated by ';', entries prefixed with "item:" match the item registry name, all other entries match
+ * item tags (optionally prefixed with "tag:"). '*' and '?' act as case insensitive wildcards.
+ * <p>
+ * The filter only depends on the item, so match results are memoized per item until tags are reloaded.
+ */
+public class ItemTagFilter {
+
+    //region Fields
+    public static final ItemTagFilter EMPTY = new ItemTagFilter("");
+
+    /**
+     * Incremented whenever tags are reloaded, filters discard their memoized results when they notice a change.
+     */
+    private static final AtomicInteger TAG_GENERATION = new AtomicInteger();
+
+    protected final String filter;
+    protected final List<Pattern> itemPatterns = new ArrayList<>();
+    protected final List<Pattern> tagPatterns = new ArrayList<>();
+
+    protected final Reference2BooleanMap<Item> matchCache = new Reference2BooleanOpenHashMap<>();
+    protected int matchCacheGeneration = TAG_GENERATION.get();
+    //endregion Fields
+
+    //region Initialization
+    protected ItemTagFilter(String filter) {
+        this.filter = filter;
+        if (filter.isEmpty())
+            return;
+
+        for (String entry : filter.split(";")) {
+            if (entry.startsWith("item:")) {
+                this.itemPatterns.add(compileWildcard(entry.substring(5)));
+            } else {
+                //tags should not be prefixed, but we allow it and handle it
+                if (entry.startsWith("tag:")) {
+                    entry = entry.substring(4);
+                }
+                this.tagPatterns.add(compileWildcard(entry));
+            }
+        }
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public String getFilter() {
+        return this.filter;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Checks if the given stack matches this filter.
+     *
+     * @param stack the stack to check.
+     * @return true if the stack matches any entry of the filter.
+     */
+    public boolean matches(ItemStack stack) {
+        if (this.filter.isEmpty() || stack.isEmpty())
+            return false;
+
+        int generation = TAG_GENERATION.get();
+        if (this.matchCacheGeneration != generation) {
+            this.matchCache.clear();
+            this.matchCacheGeneration = generation;
+        }
+
+        Item item = stack.getItem();
+        if (this.matchCache.containsKey(item))
+            return this.matchCache.getBoolean(item);
+
+        boolean matches = this.computeMatches(stack);
+        this.matchCache.put(item, matches);
+        return matches;
+    }
+
+    protected boolean computeMatches(ItemStack stack) {
+        if (!this.itemPatterns.isEmpty()) {
+            ResourceLocation id = ForgeRegistries.ITEMS.getKey(stack.getItem());
+            String name = String.valueOf(id);
+            for (Pattern pattern : this.itemPatterns) {
+                if (pattern.matcher(name).matches())
+                    return true;
+            }
+        }
+
+        if (!this.tagPatterns.isEmpty()) {
+            return stack.getTags().anyMatch(tag -> {
+                String name = tag.location().toString();
+                for (Pattern pattern : this.tagPatterns) {
+                    if (pattern.matcher(name).matches())
+                        return true;
+                }
+                return false;
+            });
+        }
+        return false;
+    }
+    //endregion Methods
+
+    //region Static Methods
+
+    /**
+     * Parses the given tag filter string.
+     *
+     * @param filter the filter string.
+     * @return the parsed filter.
+     */
+    public static ItemTagFilter of(String filter) {
+        return filter.isEmpty() ? EMPTY : new ItemTagFilter(filter);
+    }
+
+    /**
+     * Invalidates the memoized results of all filters, call when tags are reloaded.
+     */
+    public static void invalidateAll() {
+        TAG_GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Translates a wildcard expression with '*' and '?' into a case insensitive regex.
+     */
+    protected static Pattern compileWildcard(String wildcard) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : wildcard.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0)
+            regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+    //endregion Static Methods
+}
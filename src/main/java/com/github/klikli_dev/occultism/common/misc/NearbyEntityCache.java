@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Caches entity box queries around an entity, so effects that look for nearby entities every tick (e.g. familiar curio
+ * effects) do not query the level each time.
+ * Each query is refreshed at most once per refresh interval, refreshes of different centers are spread over the
+ * interval by entity id. Between refreshes the cached entities are re-checked for being alive and in range, so only
+ * entities entering the area are picked up late.
+ * Client side queries are not cached.
+ */
+public class NearbyEntityCache {
+
+    //region Fields
+    private static final int PRUNE_INTERVAL_TICKS = 200;
+    private static final Map<Level, LevelCache> CACHES = new WeakHashMap<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Gets the entities of the given class within the bounding box of the center entity, inflated by the given radius.
+     *
+     * @param center          the entity to search around.
+     * @param entityClass     the class of entities to find.
+     * @param radius          the amount to inflate the center's bounding box by.
+     * @param refreshInterval the max age of the cached query in ticks.
+     * @param filter          the filter to apply to the found entities, may change between calls.
+     * @return a new list with the matching entities.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Entity> List<T> getEntitiesOfClass(Entity center, Class<T> entityClass, double radius,
+                                                                int refreshInterval, Predicate<? super T> filter) {
+        Level level = center.level;
+        AABB area = center.getBoundingBox().inflate(radius);
+        if (level.isClientSide)
+            return level.getEntitiesOfClass(entityClass, area, filter);
+
+        long gameTime = level.getGameTime();
+        LevelCache cache = CACHES.computeIfAbsent(level, l -> new LevelCache());
+        cache.prune(gameTime);
+
+        Key key = new Key(center.getId(), entityClass, radius);
+        Entry entry = cache.entries.get(key);
+        boolean refreshTick = (gameTime + center.getId()) % refreshInterval == 0;
+        if (entry == null || gameTime - entry.queryTime >= refreshInterval || (refreshTick && entry.queryTime != gameTime)) {
+            entry = new Entry(gameTime, level.getEntitiesOfClass(entityClass, area, Entity::isAlive));
+            cache.entries.put(key, entry);
+        }
+        entry.accessTime = gameTime;
+
+        List<T> result = new ArrayList<>(entry.entities.size());
+        for (Entity entity : entry.entities) {
+            T typed = (T) entity;
+            if (entity.isAlive() && entity.getBoundingBox().intersects(area) && filter.test(typed))
+                result.add(typed);
+        }
+        return result;
+    }
+    //endregion Static Methods
+
+    private static class LevelCache {
+        //region Fields
+        private final Map<Key, Entry> entries = new HashMap<>();
+        private long pruneTime;
+        //endregion Fields
+
+        //region Methods
+        private void prune(long gameTime) {
+            if (gameTime - this.pruneTime < PRUNE_INTERVAL_TICKS)
+                return;
+            this.pruneTime = gameTime;
+            this.entries.values().removeIf(entry -> gameTime - entry.accessTime >= PRUNE_INTERVAL_TICKS);
+        }
+        //endregion Methods
+    }
+
+    private static class Entry {
+        //region Fields
+        private final long queryTime;
+        private final List<? extends Entity> entities;
+        private long accessTime;
+        //endregion Fields
+
+        //region Initialization
+        private Entry(long queryTime, List<? extends Entity> entities) {
+            this.queryTime = queryTime;
+            this.entities = entities;
+            this.accessTime = queryTime;
+        }
+        //endregion Initialization
+    }
+
+    private static class Key {
+        //region Fields
+        private final int centerId;
+        private final Class<?> entityClass;
+        private final double radius;
+        //endregion Fields
+
+        //region Initialization
+        private Key(int centerId, Class<?> entityClass, double radius) {
+            this.centerId = centerId;
+            this.entityClass = entityClass;
+            this.radius = radius;
+        }
+        //endregion Initialization
+
+        //region Overrides
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key other))
+                return false;
+            return this.centerId == other.centerId && this.entityClass == other.entityClass &&
+                    Double.compare(this.radius, other.radius) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.centerId, this.entityClass, this.radius);
+        }
+        //endregion Overrides
+    }
+}
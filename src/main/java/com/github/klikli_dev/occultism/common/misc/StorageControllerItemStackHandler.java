@@ -24,23 +24,69 @@ package com.github.klikli_dev.occultism.common.misc;
 
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.common.data.NonNullArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nonnull;
-import java.util.Collections;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
 
 public class StorageControllerItemStackHandler extends ItemStackHandler {
 
     //region Fields
+    /**
+     * Once more distinct items than this changed, the journal is dropped and clients get a full update instead.
+     */
+    public static final int MAX_JOURNAL_SIZE = 512;
+
     protected int maxStackSize;
     protected int maxSlots;
     protected boolean overrideItemStackSizes;
     protected IStorageController storageController;
+
+    /**
+     * Index from item + nbt to the slots holding it and the total count.
+     * Kept in sync in onContentsChanged, rebuilt whenever slots are shifted around.
+     */
+    protected Map<ItemStackKey, IndexEntry> index = new LinkedHashMap<>();
+    protected Map<Item, List<IndexEntry>> indexByItem = new HashMap<>();
+    /**
+     * The key and count each slot had when it was last indexed, parallel to the stacks list.
+     */
+    protected List<ItemStackKey> indexedKeys = new ArrayList<>();
+    protected IntList indexedCounts = new IntArrayList();
+    protected BitSet emptySlots = new BitSet();
+
+    /**
+     * Incremented on every change, so clients can be sent only the changes since the version they know.
+     */
+    protected int version;
+    /**
+     * The items changed after journalStartVersion, mapped to the version of their latest change.
+     */
+    protected Map<ItemStackKey, Integer> changeJournal = new HashMap<>();
+    protected int journalStartVersion;
+
+    /**
+     * Slots changed since they were last persisted, see {@link StorageControllerPersistence}.
+     */
+    protected BitSet dirtySlots = new BitSet();
+    /**
+     * The highest slot count since creation, slots up to this may hold persisted items.
+     */
+    protected int highestSize;
     //endregion Fields
 
     //region Initialization
@@ -52,6 +98,7 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
         this.maxSlots = size;
         this.maxStackSize = maxStackSize;
         this.overrideItemStackSizes = overrideItemStackSizes;
+        this.rebuildIndex();
     }
     //endregion Initialization
 
@@ -67,11 +114,14 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
         if (size > this.stacks.size()) {
             //add empty item stacks until we are full
             this.stacks.addAll(Collections.nCopies(size - this.stacks.size(), ItemStack.EMPTY));
+            this.rebuildIndex();
         }
         //if list got smaller we prune what wer can, the rest is removed ony by one when a full stack is removed
         else if (size < this.stacks.size()) {
             this.prune();
         }
+        //no items changed, but clients need to know about the new size.
+        this.version++;
     }
 
     @Nonnull
@@ -89,8 +139,11 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
 
         if (!simulate && this.stacks.size() > this.maxSlots) {
             //in real mode if we are above desired size, delete empty slots.
-            if (this.stacks.get(slot).isEmpty())
+            if (this.stacks.get(slot).isEmpty()) {
                 this.stacks.remove(slot);
+                //all following slots shifted, so the index needs to be rebuilt
+                this.rebuildIndex();
+            }
         }
 
         return result;
@@ -142,8 +195,39 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
 
     @Override
     public CompoundTag serializeNBT() {
+        CompoundTag nbt = new CompoundTag();
+        nbt.put("Items", this.serializeSlots(0, this.stacks.size()));
+        nbt.putInt("Size", this.stacks.size());
+        return nbt;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag nbt) {
+        this.deserializeSlots(nbt.contains("Size", Tag.TAG_INT) ? nbt.getInt("Size") : this.stacks.size(),
+                Collections.singletonList(nbt.getList("Items", Tag.TAG_COMPOUND)));
+    }
+
+    @Override
+    protected void onContentsChanged(int slot) {
+        this.dirtySlots.set(slot);
+        this.version++;
+        this.updateIndex(slot, true);
+        this.storageController.onContentsChanged();
+    }
+    //endregion Overrides
+
+    //region Methods
+
+    /**
+     * Serializes the non-empty slots in the given range.
+     *
+     * @param from the first slot, inclusive.
+     * @param to   the last slot, exclusive. May exceed the current size.
+     * @return the serialized slots.
+     */
+    public ListTag serializeSlots(int from, int to) {
         ListTag nbtTagList = new ListTag();
-        for (int i = 0; i < this.stacks.size(); i++) {
+        for (int i = from; i < Math.min(to, this.stacks.size()); i++) {
             if (!this.stacks.get(i).isEmpty()) {
                 CompoundTag itemTag = new CompoundTag();
                 ItemStack stack = this.stacks.get(i);
@@ -153,42 +237,342 @@ public class StorageControllerItemStackHandler extends ItemStackHandler {
                 nbtTagList.add(itemTag);
             }
         }
-        CompoundTag nbt = new CompoundTag();
-        nbt.put("Items", nbtTagList);
-        nbt.putInt("Size", this.stacks.size());
-        return nbt;
+        return nbtTagList;
     }
 
-    @Override
-    public void deserializeNBT(CompoundTag nbt) {
-        this.setSize(nbt.contains("Size", Tag.TAG_INT) ? nbt.getInt("Size") : this.stacks.size());
-        ListTag tagList = nbt.getList("Items", Tag.TAG_COMPOUND);
-        for (int i = 0; i < tagList.size(); i++) {
-            CompoundTag itemTags = tagList.getCompound(i);
-            int slot = itemTags.getInt("Slot");
-
-            if (slot >= 0 && slot < this.stacks.size()) {
-                ItemStack stack = ItemStack.of(itemTags);
-                stack.setCount(itemTags.getInt("RealSize"));
-                this.stacks.set(slot, stack);
+    /**
+     * Replaces the contents with the given serialized slots.
+     *
+     * @param size  the slot count to restore.
+     * @param lists the serialized slots, as created by {@link #serializeSlots(int, int)}.
+     */
+    public void deserializeSlots(int size, List<ListTag> lists) {
+        this.setSize(size);
+        Collections.fill(this.stacks, ItemStack.EMPTY);
+        for (ListTag tagList : lists) {
+            for (int i = 0; i < tagList.size(); i++) {
+                CompoundTag itemTags = tagList.getCompound(i);
+                int slot = itemTags.getInt("Slot");
+
+                if (slot >= 0 && slot < this.stacks.size()) {
+                    ItemStack stack = ItemStack.of(itemTags);
+                    stack.setCount(itemTags.getInt("RealSize"));
+                    this.stacks.set(slot, stack);
+                }
             }
         }
+        this.rebuildIndex();
+        this.resetJournal();
         this.onLoad();
     }
 
-    @Override
-    protected void onContentsChanged(int slot) {
-        this.storageController.onContentsChanged();
+    /**
+     * @return true if any slot in the given range changed since it was last persisted.
+     */
+    public boolean hasDirtySlots(int from, int to) {
+        int next = this.dirtySlots.nextSetBit(from);
+        return next >= 0 && next < to;
+    }
+
+    public void clearDirtySlots(int from, int to) {
+        this.dirtySlots.clear(from, to);
+    }
+
+    public void markAllSlotsDirty() {
+        this.dirtySlots.set(0, this.highestSize);
+    }
+
+    public int getHighestSize() {
+        return this.highestSize;
     }
 
-    //region Methods
     public void prune() {
+        boolean removed = false;
         //iterate from the end and remove empty stuff until we have our desired size
         for (int i = this.stacks.size() - 1; i >= 0 && this.stacks.size() > this.maxSlots; i--) {
-            if (this.stacks.get(i).isEmpty())
+            if (this.stacks.get(i).isEmpty()) {
                 this.stacks.remove(i);
+                removed = true;
+            }
+        }
+        if (removed)
+            this.rebuildIndex();
+    }
+
+    /**
+     * @return the amount of slots that currently hold a stack.
+     */
+    public int getUsedSlots() {
+        return this.stacks.size() - this.emptySlots.cardinality();
+    }
+
+    /**
+     * @return all index entries, one per distinct item + nbt combination.
+     */
+    public Collection<IndexEntry> getIndexEntries() {
+        return Collections.unmodifiableCollection(this.index.values());
+    }
+
+    /**
+     * @return the current version of the contents.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the items whose count changed since the given version.
+     *
+     * @param knownVersion the version the caller knows about.
+     * @return the changed items, or null if the changes since that version are no longer known.
+     */
+    @Nullable
+    public List<ItemStackKey> getChangesSince(int knownVersion) {
+        if (knownVersion < this.journalStartVersion || knownVersion > this.version)
+            return null;
+
+        List<ItemStackKey> result = new ObjectArrayList<>();
+        for (Map.Entry<ItemStackKey, Integer> change : this.changeJournal.entrySet()) {
+            if (change.getValue() > knownVersion)
+                result.add(change.getKey());
         }
+        return result;
+    }
+
+    /**
+     * @param key the item to look up.
+     * @return the index entry for the given item, or null if no such items are stored.
+     */
+    @Nullable
+    public IndexEntry getEntry(ItemStackKey key) {
+        return this.index.get(key);
+    }
+
+    /**
+     * Finds the index entry holding items that match the given stack in item and nbt.
+     *
+     * @param stack the stack to look up.
+     * @return the entry, or null if no such items are stored.
+     */
+    @Nullable
+    public IndexEntry findEntry(@Nonnull ItemStack stack) {
+        if (stack.isEmpty())
+            return null;
+        List<IndexEntry> entries = this.indexByItem.get(stack.getItem());
+        if (entries == null)
+            return null;
+        for (IndexEntry entry : entries) {
+            if (entry.key.matches(stack))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Gets all index entries whose items match the given comparator. The comparator is tested once per entry instead
+     * of once per slot. For item stack comparators and vanilla ingredients only entries for the relevant items are
+     * tested at all.
+     *
+     * @param comparator the comparator to match against.
+     * @return a snapshot list of the matching entries.
+     */
+    public List<IndexEntry> getMatchingEntries(@Nonnull Predicate<ItemStack> comparator) {
+        List<IndexEntry> result = new ObjectArrayList<>();
+        for (IndexEntry entry : this.getCandidateEntries(comparator)) {
+            if (comparator.test(this.stacks.get(entry.slots.firstInt())))
+                result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * @param comparator the comparator to match against.
+     * @return the total count of stored items matching the comparator.
+     */
+    public int getCount(@Nonnull Predicate<ItemStack> comparator) {
+        int count = 0;
+        for (IndexEntry entry : this.getCandidateEntries(comparator)) {
+            if (comparator.test(this.stacks.get(entry.slots.firstInt())))
+                count += entry.count;
+        }
+        return count;
+    }
+
+    /**
+     * Inserts the given stack, first topping up slots that already hold the same item and then filling empty slots.
+     * Equivalent to {@link ItemHandlerHelper#insertItem(net.minecraftforge.items.IItemHandler, ItemStack, boolean)},
+     * but only touches the relevant slots.
+     *
+     * @param stack    the stack to insert.
+     * @param simulate true for simulation.
+     * @return the remainder that could not be inserted.
+     */
+    @Nonnull
+    public ItemStack insertItemIndexed(@Nonnull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty())
+            return stack;
+
+        IndexEntry entry = this.findEntry(stack);
+        if (entry != null) {
+            for (int slot : entry.slots.toIntArray()) {
+                stack = this.insertItem(slot, stack, simulate);
+                if (stack.isEmpty())
+                    return ItemStack.EMPTY;
+            }
+        }
+
+        for (int slot = this.emptySlots.nextSetBit(0); slot >= 0 && slot < this.maxSlots;
+             slot = this.emptySlots.nextSetBit(slot + 1)) {
+            stack = this.insertItem(slot, stack, simulate);
+            if (stack.isEmpty())
+                return ItemStack.EMPTY;
+        }
+        return stack;
+    }
+
+    protected Collection<IndexEntry> getCandidateEntries(Predicate<ItemStack> comparator) {
+        if (comparator instanceof ItemStackComparator itemStackComparator) {
+            return this.indexByItem.getOrDefault(itemStackComparator.getFilterStack().getItem(),
+                    Collections.emptyList());
+        }
+        //vanilla ingredients only match on the item, so we can limit our search to the items they contain.
+        if (comparator instanceof Ingredient ingredient && ingredient.getClass() == Ingredient.class) {
+            Set<Item> items = new HashSet<>();
+            List<IndexEntry> result = new ObjectArrayList<>();
+            for (ItemStack stack : ingredient.getItems()) {
+                if (items.add(stack.getItem()))
+                    result.addAll(this.indexByItem.getOrDefault(stack.getItem(), Collections.emptyList()));
+            }
+            return result;
+        }
+        return this.index.values();
+    }
+
+    protected void journalChange(ItemStackKey key) {
+        this.changeJournal.put(key, this.version);
+        if (this.changeJournal.size() > MAX_JOURNAL_SIZE)
+            this.resetJournal();
+    }
+
+    /**
+     * Drops all known changes, clients that are not up-to-date will receive a full update.
+     */
+    protected void resetJournal() {
+        this.version++;
+        this.changeJournal.clear();
+        this.journalStartVersion = this.version;
+    }
+
+    protected void rebuildIndex() {
+        //slots may have shifted, so everything up to the previous size needs to be persisted again
+        this.highestSize = Math.max(this.highestSize, this.stacks.size());
+        this.markAllSlotsDirty();
+
+        this.index.clear();
+        this.indexByItem.clear();
+        this.indexedKeys.clear();
+        this.indexedCounts.clear();
+        this.emptySlots.clear();
+        for (int slot = 0; slot < this.stacks.size(); slot++) {
+            this.indexedKeys.add(null);
+            this.indexedCounts.add(0);
+            this.emptySlots.set(slot);
+            this.updateIndex(slot, false);
+        }
+    }
+
+    /**
+     * Updates the index for the given slot.
+     *
+     * @param slot    the slot that changed.
+     * @param journal true to record the changed items in the change journal.
+     */
+    protected void updateIndex(int slot, boolean journal) {
+        ItemStack stack = this.stacks.get(slot);
+        ItemStackKey oldKey = this.indexedKeys.get(slot);
+        int oldCount = this.indexedCounts.getInt(slot);
+
+        if (oldKey != null && oldKey.matches(stack)) {
+            //same item, only the count changed
+            this.index.get(oldKey).count += stack.getCount() - oldCount;
+            this.indexedCounts.set(slot, stack.getCount());
+            if (journal)
+                this.journalChange(oldKey);
+            return;
+        }
+
+        if (oldKey != null) {
+            if (journal)
+                this.journalChange(oldKey);
+            IndexEntry entry = this.index.get(oldKey);
+            entry.count -= oldCount;
+            entry.slots.remove(slot);
+            if (entry.slots.isEmpty()) {
+                this.index.remove(oldKey);
+                List<IndexEntry> entries = this.indexByItem.get(oldKey.getItem());
+                entries.remove(entry);
+                if (entries.isEmpty())
+                    this.indexByItem.remove(oldKey.getItem());
+            }
+        }
+
+        if (stack.isEmpty()) {
+            this.indexedKeys.set(slot, null);
+            this.indexedCounts.set(slot, 0);
+            this.emptySlots.set(slot);
+            return;
+        }
+
+        IndexEntry entry = this.findEntry(stack);
+        if (entry == null) {
+            entry = new IndexEntry(ItemStackKey.of(stack));
+            this.index.put(entry.key, entry);
+            this.indexByItem.computeIfAbsent(entry.key.getItem(), item -> new ObjectArrayList<>()).add(entry);
+        }
+        entry.slots.add(slot);
+        entry.count += stack.getCount();
+        if (journal)
+            this.journalChange(entry.key);
+        this.indexedKeys.set(slot, entry.key);
+        this.indexedCounts.set(slot, stack.getCount());
+        this.emptySlots.clear(slot);
     }
     //endregion Methods
 
+    /**
+     * All stored items of one item + nbt combination.
+     */
+    public static class IndexEntry {
+        //region Fields
+        protected final ItemStackKey key;
+        protected final IntSortedSet slots = new IntRBTreeSet();
+        protected int count;
+        //endregion Fields
+
+        //region Initialization
+        public IndexEntry(ItemStackKey key) {
+            this.key = key;
+        }
+        //endregion Initialization
+
+        //region Getter / Setter
+        public ItemStackKey getKey() {
+            return this.key;
+        }
+
+        /**
+         * @return the slots holding this item, in ascending order. Do not modify.
+         */
+        public IntSortedSet getSlots() {
+            return this.slots;
+        }
+
+        /**
+         * @return the total count of this item across all slots.
+         */
+        public int getCount() {
+            return this.count;
+        }
+        //endregion Getter / Setter
+    }
 }
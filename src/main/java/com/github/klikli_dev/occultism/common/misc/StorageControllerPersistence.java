@@ -0,0 +1,315 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.storage.DimensionDataStorage;
+import net.minecraft.world.level.storage.LevelResource;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persists the contents of a storage controller in shards of {@link #SHARD_SIZE} slots, stored as saved data of the
+ * controller's level instead of in the block entity tag.
+ * This keeps the chunk data small, and only shards with changed slots are written on save.
+ * Shards are loaded when the controller is loaded into the level. When the controller is unloaded, or its contents move
+ * to a new storage id, the changed shards are written to disk right away, as the block entity tag referencing them is
+ * saved with the chunk independently of the level data.
+ * <p>
+ * The block entity tag only references the shards by storage id. If a second controller references shards that are
+ * already in use, e.g. because the controller was cloned in creative mode, it receives a copy of the contents under a
+ * new storage id.
+ */
+public class StorageControllerPersistence {
+
+    //region Fields
+    public static final int SHARD_SIZE = 512;
+
+    protected final StorageControllerItemStackHandler handler;
+    protected final List<Shard> shards = new ArrayList<>();
+    protected DimensionDataStorage dataStorage;
+    /**
+     * The folder the data storage saves to, used to write shards outside of level saves.
+     */
+    protected File dataFolder;
+
+    protected UUID storageId;
+    protected int shardCount;
+    protected int size;
+    //endregion Fields
+
+    //region Initialization
+    public StorageControllerPersistence(StorageControllerItemStackHandler handler) {
+        this.handler = handler;
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    @Nullable
+    public UUID getStorageId() {
+        return this.storageId;
+    }
+
+    public boolean isAttached() {
+        return this.dataStorage != null;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Reads the shard reference from the given block entity tag.
+     *
+     * @param compound the block entity tag.
+     */
+    public void read(CompoundTag compound) {
+        this.storageId = compound.hasUUID("storageId") ? compound.getUUID("storageId") : null;
+        this.shardCount = compound.getInt("storageShards");
+        this.size = compound.getInt("storageSize");
+    }
+
+    /**
+     * Writes the shard reference to the given block entity tag.
+     *
+     * @param compound the block entity tag.
+     */
+    public void write(CompoundTag compound) {
+        if (this.isAttached()) {
+            this.ensureShards();
+            this.shardCount = this.shards.size();
+            this.size = this.handler.getSlots();
+        }
+        compound.putUUID("storageId", this.storageId);
+        compound.putInt("storageShards", this.shardCount);
+        compound.putInt("storageSize", this.size);
+    }
+
+    /**
+     * Loads the contents from the referenced shards, if any, and attaches the handler to them so changes are
+     * persisted. Contents that were not loaded from shards, e.g. legacy block entity tags, are migrated to new shards.
+     *
+     * @param level the level the controller is in.
+     * @return true if the contents are now stored under a new storage id, so the block entity tag needs to be saved.
+     */
+    public boolean attach(ServerLevel level) {
+        this.dataStorage = level.getDataStorage();
+        //same folder the level's data storage uses
+        this.dataFolder = DimensionType.getStorageFolder(level.dimension(),
+                level.getServer().getWorldPath(LevelResource.ROOT)).resolve("data").toFile();
+
+        if (this.storageId != null) {
+            List<Shard> shards = new ArrayList<>();
+            List<ListTag> contents = new ArrayList<>();
+            boolean inUse = false;
+            for (int i = 0; i < this.shardCount; i++) {
+                Shard shard = this.getShard(i);
+                inUse |= shard.handler != null && shard.handler != this.handler;
+                shards.add(shard);
+                contents.add(shard.getItems());
+            }
+            this.handler.deserializeSlots(this.size, contents);
+
+            if (inUse) {
+                //another controller owns these shards, continue with a copy
+                this.storageId = null;
+            } else {
+                for (Shard shard : shards)
+                    shard.attach(this.handler);
+                this.shards.addAll(shards);
+                this.handler.clearDirtySlots(0, this.handler.getHighestSize());
+            }
+        }
+
+        boolean newStorageId = this.storageId == null;
+        if (newStorageId) {
+            this.storageId = UUID.randomUUID();
+            this.handler.markAllSlotsDirty();
+        }
+        this.ensureShards();
+        if (newStorageId) {
+            //the block entity tag will reference the new shards as soon as it is saved, so they need to exist on disk
+            for (Shard shard : this.shards)
+                shard.writeToDisk();
+        }
+        return newStorageId;
+    }
+
+    /**
+     * Detaches the handler from the shards, writing changed shards to disk, as the block entity tag referencing them is
+     * saved right away. Call when the controller is unloaded.
+     */
+    public void detach() {
+        for (Shard shard : this.shards)
+            shard.detach(this.handler);
+        if (this.isAttached()) {
+            this.shardCount = this.shards.size();
+            this.size = this.handler.getSlots();
+        }
+        this.shards.clear();
+        this.dataStorage = null;
+        this.dataFolder = null;
+    }
+
+    /**
+     * Stops persisting the contents in shards without touching the shards, the loaded contents are kept in the
+     * handler. Used to move the contents back into the block entity tag, the shards are left as they are in case the
+     * block entity tag is not saved again.
+     */
+    public void unlink() {
+        this.detach();
+        this.storageId = null;
+        this.shardCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Empties and releases the shards. Call when the controller is removed from the level, or its contents are stored
+     * in the block entity tag instead.
+     */
+    public void discard() {
+        for (Shard shard : this.shards)
+            shard.discard();
+        this.shards.clear();
+        this.dataStorage = null;
+        this.dataFolder = null;
+        this.storageId = null;
+        this.shardCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Makes sure there are enough shards for all slots that may hold items.
+     */
+    protected void ensureShards() {
+        int needed = Mth.positiveCeilDiv(this.handler.getHighestSize(), SHARD_SIZE);
+        while (this.shards.size() < needed) {
+            Shard shard = this.getShard(this.shards.size());
+            shard.attach(this.handler);
+            this.shards.add(shard);
+        }
+    }
+
+    protected Shard getShard(int index) {
+        int firstSlot = index * SHARD_SIZE;
+        String name = "occultism_storage_" + this.storageId + "_" + index;
+        File file = new File(this.dataFolder, name + ".dat");
+        return this.dataStorage.computeIfAbsent(tag -> Shard.load(tag, firstSlot, file),
+                () -> new Shard(firstSlot, file), name);
+    }
+    //endregion Methods
+
+    public static class Shard extends SavedData {
+        //region Fields
+        protected final int firstSlot;
+        /**
+         * The file the data storage saves this shard to.
+         */
+        protected final File file;
+        protected ListTag items = new ListTag();
+        /**
+         * The handler holding the live contents of this shard, null if the controller is not loaded.
+         */
+        protected StorageControllerItemStackHandler handler;
+        //endregion Fields
+
+        //region Initialization
+        public Shard(int firstSlot, File file) {
+            this.firstSlot = firstSlot;
+            this.file = file;
+        }
+        //endregion Initialization
+
+        //region Overrides
+        @Override
+        public boolean isDirty() {
+            return super.isDirty() ||
+                    (this.handler != null && this.handler.hasDirtySlots(this.firstSlot, this.firstSlot + SHARD_SIZE));
+        }
+
+        @Override
+        public CompoundTag save(CompoundTag compound) {
+            if (this.handler != null) {
+                this.items = this.handler.serializeSlots(this.firstSlot, this.firstSlot + SHARD_SIZE);
+                this.handler.clearDirtySlots(this.firstSlot, this.firstSlot + SHARD_SIZE);
+            }
+            compound.put("Items", this.items);
+            return compound;
+        }
+        //endregion Overrides
+
+        //region Methods
+        public ListTag getItems() {
+            return this.handler != null ?
+                    this.handler.serializeSlots(this.firstSlot, this.firstSlot + SHARD_SIZE) : this.items;
+        }
+
+        protected void attach(StorageControllerItemStackHandler handler) {
+            this.handler = handler;
+        }
+
+        protected void detach(StorageControllerItemStackHandler handler) {
+            if (this.handler != handler)
+                return;
+
+            //takes a snapshot of the live contents if changed
+            this.writeToDisk();
+            this.handler = null;
+        }
+
+        protected void discard() {
+            this.items = new ListTag();
+            this.handler = null;
+            this.setDirty();
+            this.writeToDisk();
+        }
+
+        /**
+         * Writes this shard to its file if it changed, the same way the data storage does on level save.
+         */
+        protected void writeToDisk() {
+            if (!this.isDirty())
+                return;
+            this.file.getParentFile().mkdirs();
+            this.save(this.file);
+        }
+        //endregion Methods
+
+        //region Static Methods
+        public static Shard load(CompoundTag compound, int firstSlot, File file) {
+            Shard shard = new Shard(firstSlot, file);
+            shard.items = compound.getList("Items", Tag.TAG_COMPOUND);
+            return shard;
+        }
+        //endregion Static Methods
+    }
+}
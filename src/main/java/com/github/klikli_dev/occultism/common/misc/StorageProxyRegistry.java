@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import com.github.klikli_dev.occultism.api.common.blockentity.IStorageControllerProxy;
+import com.github.klikli_dev.occultism.api.common.data.GlobalBlockPos;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import javax.annotation.Nullable;
+import java.util.Comparator;
+
+/**
+ * Keeps track of all loaded storage controller proxies (storage controllers and stable wormholes) per level, bucketed
+ * by chunk, so spirits can find nearby proxies without scanning their work area block by block.
+ * Only server side block entities are tracked.
+ */
+public class StorageProxyRegistry {
+
+    //region Fields
+    private static final BlockEntityChunkIndex<BlockEntity> PROXIES = new BlockEntityChunkIndex<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Registers the given proxy. Call when the block entity is loaded.
+     *
+     * @param proxy the proxy block entity, must implement {@link IStorageControllerProxy}.
+     */
+    public static void register(BlockEntity proxy) {
+        if (proxy instanceof IStorageControllerProxy)
+            PROXIES.add(proxy);
+    }
+
+    /**
+     * Unregisters the given proxy. Call when the block entity is removed or its chunk is unloaded.
+     *
+     * @param proxy the proxy block entity.
+     */
+    public static void unregister(BlockEntity proxy) {
+        PROXIES.remove(proxy);
+    }
+
+    /**
+     * Finds the proxy linked to the given storage controller that is closest according to the given sorter, within a
+     * box around the given center.
+     *
+     * @param level              the level to search in.
+     * @param center             the center of the search box.
+     * @param horizontalRange    the range to search on the x and z axis.
+     * @param verticalRange      the range to search on the y axis.
+     * @param controllerPosition the storage controller the proxy needs to be linked to.
+     * @param sorter             the comparator to determine the closest proxy.
+     * @return the closest proxy block entity, or null if none was found.
+     */
+    @Nullable
+    public static BlockEntity findClosest(Level level, BlockPos center, int horizontalRange, int verticalRange,
+                                          @Nullable GlobalBlockPos controllerPosition, Comparator<BlockPos> sorter) {
+        if (controllerPosition == null)
+            return null;
+
+        BlockEntity closest = null;
+        for (BlockEntity blockEntity : PROXIES.getInBox(level,
+                center.offset(-horizontalRange, -verticalRange, -horizontalRange),
+                center.offset(horizontalRange, verticalRange, horizontalRange))) {
+            IStorageControllerProxy proxy = (IStorageControllerProxy) blockEntity;
+            if (!controllerPosition.equals(proxy.getLinkedStorageControllerPosition()))
+                continue;
+
+            if (closest == null || sorter.compare(blockEntity.getBlockPos(), closest.getBlockPos()) < 0)
+                closest = blockEntity;
+        }
+        return closest;
+    }
+    //endregion Static Methods
+}
@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.klikli_dev.occultism.common.misc;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.random.WeightedEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Samples weighted entries in constant time per roll using Vose's alias method.
+ * Draws entries with the same probabilities as {@link net.minecraft.util.random.WeightedRandom#getRandomItem}, but
+ * instead of walking the list on every roll, the entries are split into equally likely columns of at most two entries
+ * once when the sampler is created.
+ */
+public class WeightedSampler<T extends WeightedEntry> {
+
+    //region Fields
+    protected final List<T> entries = new ArrayList<>();
+    protected final double[] probabilities;
+    protected final int[] aliases;
+    //endregion Fields
+
+    //region Initialization
+    public WeightedSampler(List<T> entries) {
+        long totalWeight = 0;
+        for (T entry : entries) {
+            int weight = entry.getWeight().asInt();
+            if (weight > 0) {
+                this.entries.add(entry);
+                totalWeight += weight;
+            }
+        }
+
+        int size = this.entries.size();
+        this.probabilities = new double[size];
+        this.aliases = new int[size];
+
+        //scale weights so the average column is 1, then pair up columns below 1 with columns above 1
+        double[] scaled = new double[size];
+        IntArrayList small = new IntArrayList();
+        IntArrayList large = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            scaled[i] = (double) this.entries.get(i).getWeight().asInt() * size / totalWeight;
+            if (scaled[i] < 1.0)
+                small.add(i);
+            else
+                large.add(i);
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.popInt();
+            int more = large.popInt();
+            this.probabilities[less] = scaled[less];
+            this.aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0)
+                small.add(more);
+            else
+                large.add(more);
+        }
+
+        //leftovers are full columns, the remaining differences are floating point errors
+        while (!large.isEmpty())
+            this.probabilities[large.popInt()] = 1.0;
+        while (!small.isEmpty())
+            this.probabilities[small.popInt()] = 1.0;
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * @return the entries with a weight above 0, in the order used by {@link #sampleCounts(RandomSource, int)}.
+     */
+    public List<T> getEntries() {
+        return this.entries;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Draws a single entry.
+     *
+     * @param random the random source.
+     * @return the drawn entry, or empty if there are no entries with a weight above 0.
+     */
+    public Optional<T> sample(RandomSource random) {
+        if (this.entries.isEmpty())
+            return Optional.empty();
+        return Optional.of(this.entries.get(this.sampleIndex(random)));
+    }
+
+    /**
+     * Draws the given amount of entries at once.
+     *
+     * @param random the random source.
+     * @param rolls  the amount of entries to draw.
+     * @return how often each entry of {@link #getEntries()} was drawn, by index.
+     */
+    public int[] sampleCounts(RandomSource random, int rolls) {
+        int[] counts = new int[this.entries.size()];
+        if (this.entries.isEmpty())
+            return counts;
+
+        for (int i = 0; i < rolls; i++) {
+            counts[this.sampleIndex(random)]++;
+        }
+        return counts;
+    }
+
+    protected int sampleIndex(RandomSource random) {
+        int column = random.nextInt(this.entries.size());
+        return random.nextDouble() < this.probabilities[column] ? column : this.aliases[column];
+    }
+    //endregion Methods
+}
@@ -46,6 +46,7 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -182,7 +183,7 @@ public abstract class Ritual {
                            List<Ingredient> remainingAdditionalIngredients) {
         return this.recipe.getPentacle() != null && this.recipe.getActivationItem().test(activationItem) &&
                 this.areAdditionalIngredientsFulfilled(level, goldenBowlPosition, remainingAdditionalIngredients) &&
-                this.recipe.getPentacle().validate(level, goldenBowlPosition) != null;
+                blockEntity.isPentacleValid(this.recipe.getPentacle());
     }
 
     /**
@@ -457,10 +458,21 @@ public abstract class Ritual {
         yBowlRangeTop++;
         yBowlRangeBottom++;
 
+        BlockPos min = goldenBowlPosition.offset(-SACRIFICIAL_BOWL_RANGE, -yBowlRangeBottom, -SACRIFICIAL_BOWL_RANGE);
+        BlockPos max = goldenBowlPosition.offset(SACRIFICIAL_BOWL_RANGE, yBowlRangeTop, SACRIFICIAL_BOWL_RANGE);
+
+        if (!level.isClientSide) {
+            //loaded bowls are tracked, so we only need to look at the ones in range.
+            //sorted to consume from bowls in the same order as a scan of the area would.
+            List<SacrificialBowlBlockEntity> result = SacrificialBowlBlockEntity.getLoadedBowls(level, min, max);
+            result.sort(Comparator.<SacrificialBowlBlockEntity>comparingInt(bowl -> bowl.getBlockPos().getZ())
+                    .thenComparingInt(bowl -> bowl.getBlockPos().getY())
+                    .thenComparingInt(bowl -> bowl.getBlockPos().getX()));
+            return result;
+        }
+
         List<SacrificialBowlBlockEntity> result = new ArrayList<>();
-        Iterable<BlockPos> blocksToCheck = BlockPos.betweenClosed(
-                goldenBowlPosition.offset(-SACRIFICIAL_BOWL_RANGE, -yBowlRangeBottom, -SACRIFICIAL_BOWL_RANGE),
-                goldenBowlPosition.offset(SACRIFICIAL_BOWL_RANGE, yBowlRangeTop, SACRIFICIAL_BOWL_RANGE));
+        Iterable<BlockPos> blocksToCheck = BlockPos.betweenClosed(min, max);
         for (BlockPos blockToCheck : blocksToCheck) {
             BlockEntity blockEntity = level.getBlockEntity(blockToCheck);
             if (blockEntity instanceof SacrificialBowlBlockEntity &&
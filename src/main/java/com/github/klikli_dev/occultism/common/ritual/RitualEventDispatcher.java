@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.github.klikli_dev.occultism.common.ritual;
+
+import com.github.klikli_dev.occultism.common.blockentity.GoldenSacrificialBowlBlockEntity;
+import com.github.klikli_dev.occultism.common.misc.BlockEntityChunkIndex;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Forwards the events rituals listen for to the active rituals in range of the event, instead of every golden bowl
+ * registering its own event bus listeners.
+ * Active rituals are tracked per level, bucketed by chunk. Only server side block entities are tracked.
+ */
+public class RitualEventDispatcher {
+
+    //region Fields
+    /**
+     * The distance around a golden bowl in which block changes are reported to it. Covers all built-in pentacles,
+     * larger custom pentacles still get re-validated periodically.
+     */
+    public static final int PENTACLE_RANGE = Ritual.SACRIFICIAL_BOWL_RANGE * 2;
+
+    private static final BlockEntityChunkIndex<GoldenSacrificialBowlBlockEntity> ACTIVE_RITUALS =
+            new BlockEntityChunkIndex<>();
+    //endregion Fields
+
+    //region Static Methods
+
+    /**
+     * Registers the given golden bowl to receive ritual events. Call when a ritual starts or is restored on load.
+     *
+     * @param goldenBowl the golden bowl running a ritual.
+     */
+    public static void register(GoldenSacrificialBowlBlockEntity goldenBowl) {
+        ACTIVE_RITUALS.add(goldenBowl);
+    }
+
+    /**
+     * Unregisters the given golden bowl. Call when a ritual stops, or the block entity is removed or unloaded.
+     *
+     * @param goldenBowl the golden bowl.
+     */
+    public static void unregister(GoldenSacrificialBowlBlockEntity goldenBowl) {
+        ACTIVE_RITUALS.remove(goldenBowl);
+    }
+
+    public static void onPlayerRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        if (event.getLevel().isClientSide)
+            return;
+
+        forEachInRange(event.getLevel(), event.getPos(), Ritual.ITEM_USE_DETECTION_RANGE,
+                goldenBowl -> goldenBowl.onPlayerRightClickItem(event));
+    }
+
+    public static void onLivingDeath(LivingDeathEvent event) {
+        if (event.getEntity().level.isClientSide)
+            return;
+
+        forEachInRange(event.getEntity().level, event.getEntity().blockPosition(), Ritual.SACRIFICE_DETECTION_RANGE,
+                goldenBowl -> goldenBowl.onLivingDeath(event));
+    }
+
+    /**
+     * Notifies active rituals of a block change, so they can drop their cached pentacle validation.
+     *
+     * @param level the level.
+     * @param pos   the changed position.
+     */
+    public static void onBlockChanged(Level level, BlockPos pos) {
+        if (level.isClientSide)
+            return;
+
+        forEachInRange(level, pos, PENTACLE_RANGE, goldenBowl -> goldenBowl.onBlockChanged(pos));
+    }
+
+    /**
+     * Calls the given action for all golden bowls with active rituals in a box of the given range around the given
+     * position. The golden bowls still perform their exact range check.
+     */
+    protected static void forEachInRange(Level level, BlockPos pos, int range,
+                                         Consumer<GoldenSacrificialBowlBlockEntity> action) {
+        //the index returns a copy, as handling the event may stop rituals and thus unregister them.
+        for (GoldenSacrificialBowlBlockEntity goldenBowl : ACTIVE_RITUALS.getInBox(level,
+                pos.offset(-range, -range, -range), pos.offset(range, range, range))) {
+            action.accept(goldenBowl);
+        }
+    }
+    //endregion Static Methods
+}
@@ -83,6 +83,7 @@ public class OccultismServerConfig {
         public final ConfigValue<Integer> blacksmithFamiliarUpgradeCost;
         public final ConfigValue<Integer> blacksmithFamiliarUpgradeCooldown;
         public final ConfigValue<Double> blacksmithFamiliarRepairChance;
+        public final ConfigValue<Integer> lumberjackLogsPerTick;
 
         public SpiritJobSettings(ForgeConfigSpec.Builder builder) {
             builder.comment("Spirit Job Settings").push("spirit_job");
@@ -143,6 +144,11 @@ public class OccultismServerConfig {
                                     "The cooldown for a blacksmith familiar to upgrade another familiar.")
                             .define("blacksmithFamiliarUpgradeCooldown", 20 * 20);
 
+            this.lumberjackLogsPerTick =
+                    builder.comment(
+                                    "The maximum amount of logs a lumberjack spirit breaks per tick while felling a tree. Lower values spread felling huge trees over more ticks.")
+                            .defineInRange("lumberjackLogsPerTick", 16, 1, Integer.MAX_VALUE);
+
 
             builder.pop();
         }
@@ -153,9 +159,15 @@ public class OccultismServerConfig {
         public final MinerSpiritSettings minerDjinniOres;
         public final MinerSpiritSettings minerAfritDeeps;
         public final MinerSpiritSettings minerMaridMaster;
+        public final ConfigValue<Integer> batchTicks;
         public DimensionalMineshaftSettings(ForgeConfigSpec.Builder builder) {
             builder.comment("Dimensional Mineshaft Settings").push("dimensional_mineshaft");
 
+            this.batchTicks =
+                    builder.comment(
+                                    "The amount of ticks a dimensional mineshaft processes at once. 1 processes every tick, higher values (e.g. 20) reduce server load for bases with many mineshafts at the cost of less frequent output. The amount of output over time stays the same.")
+                            .defineInRange("batchTicks", 1, 1, 20 * 60);
+
             this.minerFoliotUnspecialized =
                     new MinerSpiritSettings("miner_foliot_unspecialized", builder, 400, 1, 1000);
 
@@ -262,6 +274,7 @@ public class OccultismServerConfig {
         public final ConfigValue<Integer> controllerBaseSlots;
         public final ConfigValue<Integer> controllerStackSize;
         public final BooleanValue overrideItemStackSizes;
+        public final BooleanValue shardedControllerPersistence;
 
         public StorageSettings(ForgeConfigSpec.Builder builder) {
             builder.comment("Storage Settings").push("storage");
@@ -289,6 +302,12 @@ public class OccultismServerConfig {
                                             "item type (such as 16 for ender pearls, 64 for iron ingot). WARNING: Setting this to " +
                                             "false may have a negative impact on performance.")
                             .define("overrideItemStackSizes", true);
+            this.shardedControllerPersistence =
+                    builder.comment(
+                                    "True to save the contents of storage actuators as separate level data split into " +
+                                            "shards, instead of in the chunk. Only shards with changed items are saved, " +
+                                            "which improves save performance for large storages.")
+                            .define("shardedControllerPersistence", false);
             builder.pop();
         }
     }
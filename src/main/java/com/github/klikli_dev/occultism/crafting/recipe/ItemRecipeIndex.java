@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 klikli-dev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT
+ * OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.github.klikli_dev.occultism.crafting.recipe;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Indexes the recipes of a recipe type by the items accepted by one of their ingredients, so callers only need to test
+ * recipes that can possibly match a given item.
+ * Recipes whose ingredient cannot be enumerated reliably (non-simple ingredients) are candidates for every item.
+ * Candidates are returned in recipe manager order, so the first match is the same as when testing all recipes.
+ * <p>
+ * Indices are cached per recipe manager and dropped when recipes or tags are reloaded.
+ */
+public class ItemRecipeIndex<T extends Recipe<?>> {
+
+    //region Fields
+    private static final Map<RecipeManager, Map<RecipeType<?>, ItemRecipeIndex<?>>> INDICES = new WeakHashMap<>();
+
+    protected final List<T> recipes;
+    protected final Function<T, Ingredient> ingredientGetter;
+    protected final Reference2IntMap<T> recipeOrder = new Reference2IntOpenHashMap<>();
+    protected final Map<Item, List<T>> recipesByItem = new IdentityHashMap<>();
+    protected final List<T> unindexedRecipes = new ArrayList<>();
+    protected final Map<Item, List<T>> candidateCache = new IdentityHashMap<>();
+    /**
+     * First matching recipe per item, including negative results. Only used if all recipes are indexed, because
+     * only then the match depends on nothing but the item.
+     */
+    protected final Map<Item, Optional<T>> firstMatchCache = new IdentityHashMap<>();
+    //endregion Fields
+
+    //region Initialization
+    public ItemRecipeIndex(List<T> recipes, Function<T, Ingredient> ingredientGetter) {
+        this.recipes = recipes;
+        this.ingredientGetter = ingredientGetter;
+        for (int i = 0; i < recipes.size(); i++) {
+            T recipe = recipes.get(i);
+            this.recipeOrder.put(recipe, i);
+
+            Ingredient ingredient = ingredientGetter.apply(recipe);
+            if (ingredient == null || !ingredient.isSimple()) {
+                this.unindexedRecipes.add(recipe);
+                continue;
+            }
+
+            for (ItemStack stack : ingredient.getItems()) {
+                List<T> itemRecipes = this.recipesByItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+                //tag ingredients may list the same item multiple times
+                if (itemRecipes.isEmpty() || itemRecipes.get(itemRecipes.size() - 1) != recipe)
+                    itemRecipes.add(recipe);
+            }
+        }
+    }
+    //endregion Initialization
+
+    //region Getter / Setter
+    public List<T> getRecipes() {
+        return this.recipes;
+    }
+    //endregion Getter / Setter
+
+    //region Methods
+
+    /**
+     * Gets the recipes that may match the given stack. Do not modify the result.
+     *
+     * @param stack the stack to find recipes for.
+     * @return the candidate recipes, in recipe manager order.
+     */
+    public List<T> getCandidates(ItemStack stack) {
+        return this.getCandidates(stack.getItem());
+    }
+
+    /**
+     * Gets the recipes that may match the given item. Do not modify the result.
+     *
+     * @param item the item to find recipes for.
+     * @return the candidate recipes, in recipe manager order.
+     */
+    public List<T> getCandidates(Item item) {
+        List<T> indexed = this.recipesByItem.getOrDefault(item, Collections.emptyList());
+        if (this.unindexedRecipes.isEmpty())
+            return indexed;
+
+        return this.candidateCache.computeIfAbsent(item, key -> {
+            List<T> candidates = new ArrayList<>(indexed.size() + this.unindexedRecipes.size());
+            candidates.addAll(indexed);
+            candidates.addAll(this.unindexedRecipes);
+            candidates.sort(Comparator.comparingInt(this.recipeOrder::getInt));
+            return candidates;
+        });
+    }
+
+    /**
+     * Finds the first recipe whose indexed ingredient accepts the given stack.
+     * If all recipes have simple ingredients, the result is memoized per item.
+     *
+     * @param stack the stack to find a recipe for.
+     * @return the first matching recipe in recipe manager order, or empty if none matches.
+     */
+    public Optional<T> findFirst(ItemStack stack) {
+        if (!this.unindexedRecipes.isEmpty())
+            return this.findFirstUncached(stack);
+
+        Optional<T> match = this.firstMatchCache.get(stack.getItem());
+        if (match == null) {
+            match = this.findFirstUncached(stack);
+            this.firstMatchCache.put(stack.getItem(), match);
+        }
+        return match;
+    }
+
+    protected Optional<T> findFirstUncached(ItemStack stack) {
+        for (T recipe : this.getCandidates(stack)) {
+            if (this.ingredientGetter.apply(recipe).test(stack))
+                return Optional.of(recipe);
+        }
+        return Optional.empty();
+    }
+    //endregion Methods
+
+    //region Static Methods
+
+    /**
+     * Gets the index for the given recipe type, building it if needed.
+     * Each recipe type is indexed by a single ingredient, callers must always pass an equivalent ingredient getter.
+     *
+     * @param level            the level to get the recipe manager from.
+     * @param recipeType       the recipe type.
+     * @param ingredientGetter gets the ingredient to index a recipe by.
+     * @return the index.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends Container, T extends Recipe<C>> ItemRecipeIndex<T> get(Level level, RecipeType<T> recipeType,
+                                                                                    Function<T, Ingredient> ingredientGetter) {
+        RecipeManager recipeManager = level.getRecipeManager();
+        synchronized (INDICES) {
+            return (ItemRecipeIndex<T>) INDICES.computeIfAbsent(recipeManager, manager -> new HashMap<>())
+                    .computeIfAbsent(recipeType, type -> new ItemRecipeIndex<>(
+                            recipeManager.getAllRecipesFor(recipeType), ingredientGetter));
+        }
+    }
+
+    /**
+     * Drops all indices, call when recipes or tags are reloaded.
+     */
+    public static void invalidateAll() {
+        synchronized (INDICES) {
+            INDICES.clear();
+        }
+    }
+    //endregion Static Methods
+}
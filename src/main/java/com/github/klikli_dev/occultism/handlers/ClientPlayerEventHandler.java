@@ -23,8 +23,10 @@
 package com.github.klikli_dev.occultism.handlers;
 
 import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.client.divination.ScanManager;
 import com.github.klikli_dev.occultism.client.gui.storage.SatchelScreen;
 import com.github.klikli_dev.occultism.client.gui.storage.StorageRemoteGui;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeIndex;
 import com.github.klikli_dev.occultism.network.*;
 import com.github.klikli_dev.occultism.util.CuriosUtil;
 import com.github.klikli_dev.occultism.util.MovementUtil;
@@ -35,6 +37,8 @@ import net.minecraft.sounds.SoundEvents;
 import net.minecraft.world.entity.EntityType;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.InputEvent;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -48,6 +52,21 @@ import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
 public class ClientPlayerEventHandler {
     //region Static Methods
 
+    @SubscribeEvent
+    public static void onRecipesUpdated(final RecipesUpdatedEvent event) {
+        //the client reuses its recipe manager when receiving recipes, so cached indices need to be dropped explicitly
+        ItemRecipeIndex.invalidateAll();
+    }
+
+    @SubscribeEvent
+    public static void onRenderTick(final TickEvent.RenderTickEvent event) {
+        //advance divination rod scans every frame, each step stays within the scan time budget
+        Minecraft minecraft = Minecraft.getInstance();
+        if (event.phase == TickEvent.Phase.START && minecraft.player != null && !minecraft.isPaused()) {
+            ScanManager.instance.updateScan(minecraft.player, false);
+        }
+    }
+
     @SubscribeEvent
     public static void onKeyInput(final InputEvent.Key event) {
         Minecraft minecraft = Minecraft.getInstance();
@@ -35,6 +35,7 @@ import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.damagesource.EntityDamageSource;
 import net.minecraft.world.effect.MobEffectInstance;
 import net.minecraft.world.effect.MobEffects;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
@@ -49,7 +50,9 @@ import net.minecraftforge.event.level.SaplingGrowTreeEvent;
 import net.minecraftforge.eventbus.api.Event.Result;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import top.theillusivec4.curios.api.event.CurioChangeEvent;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Mod.EventBusSubscriber(modid = Occultism.MODID, bus = Mod.EventBusSubscriber.Bus.FORGE)
@@ -59,8 +62,18 @@ public class FamiliarEventHandler {
     public static void beaverFindTree(SaplingGrowTreeEvent event) {
         LevelAccessor world = event.getLevel();
         BlockPos pos = event.getPos();
-        List<BeaverFamiliarEntity> beavers = event.getLevel().getEntitiesOfClass(BeaverFamiliarEntity.class,
-                new AABB(pos).inflate(30), b -> !b.isSitting() && b.isEffectEnabled(b.getFamiliarOwner()));
+        AABB area = new AABB(pos).inflate(30);
+        List<BeaverFamiliarEntity> beavers = new ArrayList<>();
+        if (world.isClientSide()) {
+            beavers = world.getEntitiesOfClass(BeaverFamiliarEntity.class, area,
+                    b -> !b.isSitting() && b.isEffectEnabled(b.getFamiliarOwner()));
+        } else {
+            for (Entity entity : FamiliarRegistry.getAllSpawnedFamiliars()) {
+                if (entity instanceof BeaverFamiliarEntity b && b.level == world && b.getBoundingBox().intersects(area)
+                        && !b.isSitting() && b.isEffectEnabled(b.getFamiliarOwner()))
+                    beavers.add(b);
+            }
+        }
 
         if (!beavers.isEmpty()) {
             BeaverFamiliarEntity beaver = beavers.get(world.getRandom().nextInt(beavers.size()));
@@ -69,6 +82,11 @@ public class FamiliarEventHandler {
         }
     }
 
+    @SubscribeEvent
+    public static void curioChange(CurioChangeEvent event) {
+        FamiliarRegistry.onEquipmentChanged(event.getEntity());
+    }
+
     @SubscribeEvent
     public static void beaverHarvest(PlayerEvent.BreakSpeed event) {
         Player player = event.getEntity();
@@ -23,8 +23,26 @@
 package com.github.klikli_dev.occultism.handlers;
 
 import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.blockentity.DimensionalMineshaftBlockEntity;
+import com.github.klikli_dev.occultism.common.entity.ai.sensor.TreeStumpIndex;
+import com.github.klikli_dev.occultism.common.entity.familiar.FamiliarRegistry;
+import com.github.klikli_dev.occultism.common.misc.EntityUuidRegistry;
+import com.github.klikli_dev.occultism.common.misc.ItemTagFilter;
+import com.github.klikli_dev.occultism.common.ritual.RitualEventDispatcher;
+import com.github.klikli_dev.occultism.crafting.recipe.ItemRecipeIndex;
 import com.github.klikli_dev.occultism.registry.OccultismCommands;
+import net.minecraft.world.level.Level;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.SaplingGrowTreeEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -37,5 +55,72 @@ public class ForgeEventHandler {
     public static void registerCommands(RegisterCommandsEvent event) {
         OccultismCommands.register(event.getDispatcher());
     }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        ItemTagFilter.invalidateAll();
+        ItemRecipeIndex.invalidateAll();
+        DimensionalMineshaftBlockEntity.invalidateResultSamplers();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        //lowest priority so entities prevented from joining by other handlers are not registered
+        EntityUuidRegistry.register(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        EntityUuidRegistry.unregister(event.getEntity());
+        FamiliarRegistry.onEntityLeave(event.getEntity());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        EntityUuidRegistry.clear();
+        FamiliarRegistry.clear();
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRightClickItem(PlayerInteractEvent.RightClickItem event) {
+        RitualEventDispatcher.onPlayerRightClickItem(event);
+    }
+
+    @SubscribeEvent
+    public static void onLivingDeath(LivingDeathEvent event) {
+        RitualEventDispatcher.onLivingDeath(event);
+    }
+
+    @SubscribeEvent
+    public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        if (event.getLevel() instanceof Level level)
+            TreeStumpIndex.invalidate(level, event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (event.getLevel() instanceof Level level)
+            TreeStumpIndex.invalidate(level, event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        //fired for most block changes, including the ones not caused by players
+        if (event.getLevel() instanceof Level level)
+            RitualEventDispatcher.onBlockChanged(level, event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onSaplingGrowTree(SaplingGrowTreeEvent event) {
+        //the tree has not grown yet, but its stump will be at the sapling position
+        if (event.getLevel() instanceof Level level)
+            TreeStumpIndex.invalidate(level, event.getPos());
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof Level level)
+            TreeStumpIndex.invalidateChunk(level, event.getChunk().getPos());
+    }
     //endregion Static Methods
 }
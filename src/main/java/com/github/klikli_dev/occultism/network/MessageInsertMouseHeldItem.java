@@ -25,6 +25,7 @@ package com.github.klikli_dev.occultism.network;
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
 import com.github.klikli_dev.occultism.util.InputUtil;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
@@ -90,7 +91,7 @@ public class MessageInsertMouseHeldItem extends MessageBase {
             OccultismPackets.sendTo(player, new MessageUpdateMouseHeldItem(result));
 
             //update the storage controller
-            OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+            StorageUtil.sendStackUpdate(player, storageController);
             player.containerMenu.broadcastChanges();
         }
     }
@@ -25,6 +25,7 @@ package com.github.klikli_dev.occultism.network;
 
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
@@ -52,7 +53,7 @@ public class MessageRequestStacks extends MessageBase {
             IStorageController storageController = ((IStorageControllerContainer) player.containerMenu)
                     .getStorageController();
             if (storageController != null) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                StorageUtil.sendFullStackUpdate(player, storageController);
                 OccultismPackets
                         .sendTo(player, new MessageUpdateLinkedMachines(storageController.getLinkedMachines()));
                 player.containerMenu.broadcastChanges();
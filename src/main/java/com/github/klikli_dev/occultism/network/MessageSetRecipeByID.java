@@ -103,7 +103,7 @@ public class MessageSetRecipeByID extends MessageBase {
         //sync to client
         container.updateCraftingSlots(true);
         //finally update controller content for client
-        OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+        StorageUtil.sendStackUpdate(player, storageController);
     }
 
     @Override
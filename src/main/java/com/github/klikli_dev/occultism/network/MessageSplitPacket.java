@@ -22,6 +22,7 @@
 
 package com.github.klikli_dev.occultism.network;
 
+import io.netty.buffer.ByteBuf;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraftforge.network.NetworkEvent.Context;
 
@@ -29,9 +30,10 @@ import java.util.function.Supplier;
 
 public class MessageSplitPacket {
     /**
-     * The payload.
+     * The payload. When sending this is a view on the buffer of the split message, when receiving a retained view on the
+     * received packet.
      */
-    private final byte[] payload;
+    private final ByteBuf payload;
     /**
      * Internal communication id. Used to indicate to what wrapped message this belongs to.
      */
@@ -41,7 +43,7 @@ public class MessageSplitPacket {
      */
     private final int packetIndex;
 
-    public MessageSplitPacket(final int communicationId, final int packetIndex, final byte[] payload) {
+    public MessageSplitPacket(final int communicationId, final int packetIndex, final ByteBuf payload) {
         this.communicationId = communicationId;
         this.packetIndex = packetIndex;
         this.payload = payload;
@@ -50,11 +52,14 @@ public class MessageSplitPacket {
     public static void encode(MessageSplitPacket message, FriendlyByteBuf buf) {
         buf.writeVarInt(message.communicationId);
         buf.writeVarInt(message.packetIndex);
-        buf.writeByteArray(message.payload);
+        buf.writeVarInt(message.payload.readableBytes());
+        buf.writeBytes(message.payload, message.payload.readerIndex(), message.payload.readableBytes());
     }
 
     public static MessageSplitPacket decode(final FriendlyByteBuf buf) {
-        return new MessageSplitPacket(buf.readVarInt(), buf.readVarInt(), buf.readByteArray());
+        int communicationId = buf.readVarInt();
+        int packetIndex = buf.readVarInt();
+        return new MessageSplitPacket(communicationId, packetIndex, buf.readRetainedSlice(buf.readVarInt()));
     }
 
     public static boolean handle(MessageSplitPacket data, Supplier<Context> ctx) {
@@ -26,6 +26,7 @@ import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
 import com.github.klikli_dev.occultism.common.misc.ItemStackComparator;
 import com.github.klikli_dev.occultism.util.InputUtil;
+import com.github.klikli_dev.occultism.util.StorageUtil;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
@@ -111,7 +112,7 @@ public class MessageTakeItem extends MessageBase {
             }
 
             //finally, update the storage controller stacks
-            OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+            StorageUtil.sendStackUpdate(player, storageController);
             player.containerMenu.broadcastChanges();
         }
     }
@@ -24,6 +24,7 @@ package com.github.klikli_dev.occultism.network;
 
 import com.github.klikli_dev.occultism.api.client.gui.IStorageControllerGui;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
@@ -40,15 +41,24 @@ import java.util.zip.Inflater;
 
 /**
  * This message sends the stacks in the currently opened storage controller.
+ * It either carries a full snapshot of all stacks, or only the stacks that changed since the given base version.
  */
 public class MessageUpdateStacks extends MessageBase {
 
     //region Fields
     private static final int DEFAULT_BUFFER_SIZE = 2 * 1024;
+    /**
+     * Rough serialized size of a stack without nbt, used to size the initial buffer. Buffers grow as needed.
+     */
+    private static final int ESTIMATED_STACK_SIZE = 16;
 
     private List<ItemStack> stacks;
+    private List<ItemStack> removedStacks;
     private int usedSlots;
     private int maxSlots;
+    private boolean isDelta;
+    private int baseVersion;
+    private int version;
     private ByteBuf payload;
 
     //endregion Fields
@@ -58,28 +68,82 @@ public class MessageUpdateStacks extends MessageBase {
         this.decode(buf);
     }
 
-    public MessageUpdateStacks(List<ItemStack> stacks, int usedSlots, int maxSlots) {
+    /**
+     * Creates a full update.
+     *
+     * @param stacks    all stacks in the storage controller.
+     * @param usedSlots the used slots.
+     * @param maxSlots  the max slots.
+     * @param version   the version of the storage controller contents.
+     */
+    public MessageUpdateStacks(List<ItemStack> stacks, int usedSlots, int maxSlots, int version) {
         this.stacks = stacks;
+        this.removedStacks = new ArrayList<>();
         this.usedSlots = usedSlots;
         this.maxSlots = maxSlots;
+        this.isDelta = false;
+        this.version = version;
+        this.compress();
+    }
+
+    /**
+     * Creates a delta update that only applies to clients that know the base version.
+     *
+     * @param changedStacks the stacks whose count changed, with their new total count.
+     * @param removedStacks the stacks that are no longer in the storage controller.
+     * @param usedSlots     the used slots.
+     * @param maxSlots      the max slots.
+     * @param baseVersion   the version of the storage controller contents the changes are based on.
+     * @param version       the version of the storage controller contents after applying the changes.
+     */
+    public MessageUpdateStacks(List<ItemStack> changedStacks, List<ItemStack> removedStacks, int usedSlots,
+                               int maxSlots, int baseVersion, int version) {
+        this.stacks = changedStacks;
+        this.removedStacks = removedStacks;
+        this.usedSlots = usedSlots;
+        this.maxSlots = maxSlots;
+        this.isDelta = true;
+        this.baseVersion = baseVersion;
+        this.version = version;
         this.compress();
     }
     //endregion Initialization
 
+    //region Getter / Setter
+    public int getVersion() {
+        return this.version;
+    }
+
+    public boolean isDelta() {
+        return this.isDelta;
+    }
+    //endregion Getter / Setter
+
     //region Overrides
 
     @Override
     @OnlyIn(Dist.CLIENT)
     public void onClientReceived(Minecraft minecraft, Player player, NetworkEvent.Context context) {
-        this.uncompress();
-        if (minecraft.screen instanceof IStorageControllerGui) {
-            IStorageControllerGui gui = (IStorageControllerGui) minecraft.screen;
-            if (gui != null) {
+        if (minecraft.screen instanceof IStorageControllerGui gui) {
+            if (this.isDelta && gui.getStacksVersion() != this.baseVersion) {
+                //we missed an update, so we need a full snapshot. Unless we already requested one.
+                if (gui.getStacksVersion() != IStorageControllerGui.AWAITING_FULL_UPDATE) {
+                    gui.setStacksVersion(IStorageControllerGui.AWAITING_FULL_UPDATE);
+                    OccultismPackets.sendToServer(new MessageRequestStacks());
+                }
+                return;
+            }
+
+            this.uncompress();
+            if (this.isDelta) {
+                gui.updateStacks(this.stacks, this.removedStacks);
+            } else {
                 gui.setStacks(this.stacks);
-                gui.setUsedSlots(this.usedSlots);
-                gui.setMaxSlots(this.maxSlots);
-                gui.markDirty();
             }
+            gui.setStacksVersion(this.version);
+            gui.setUsedSlots(this.usedSlots);
+            gui.setMaxSlots(this.maxSlots);
+            gui.markDirty();
         }
     }
 
@@ -87,6 +151,10 @@ public class MessageUpdateStacks extends MessageBase {
     public void encode(FriendlyByteBuf buf) {
         buf.writeVarInt(this.usedSlots);
         buf.writeVarInt(this.maxSlots);
+        buf.writeBoolean(this.isDelta);
+        buf.writeVarInt(this.version);
+        if (this.isDelta)
+            buf.writeVarInt(this.baseVersion);
 
         //write compressed size, then compressed data
         buf.writeVarInt(this.payload.readableBytes());
@@ -97,17 +165,22 @@ public class MessageUpdateStacks extends MessageBase {
     public void decode(FriendlyByteBuf buf) {
         this.usedSlots = buf.readVarInt();
         this.maxSlots = buf.readVarInt();
+        this.isDelta = buf.readBoolean();
+        this.version = buf.readVarInt();
+        if (this.isDelta)
+            this.baseVersion = buf.readVarInt();
         //read compressed size, then compressed data.
         int compressedSize = buf.readVarInt();
         this.payload = Unpooled.buffer(compressedSize);
-        buf.readBytes(this.payload, 0, compressedSize);
+        buf.readBytes(this.payload, compressedSize);
     }
     //endregion Overrides
 
     //region Methods
     public void uncompress() {
         Inflater decompressor = new Inflater();
-        decompressor.setInput(this.payload.array());
+        decompressor.setInput(this.payload.array(), this.payload.arrayOffset() + this.payload.readerIndex(),
+                this.payload.readableBytes());
 
         // Create an expandable packet buffer to hold the decompressed data
         FriendlyByteBuf uncompressed = new FriendlyByteBuf(Unpooled.buffer(this.payload.readableBytes() * 4));
@@ -121,6 +194,7 @@ public class MessageUpdateStacks extends MessageBase {
             } catch (Exception e) {
             }
         }
+        decompressor.end();
 
         int stacksSize = uncompressed.readInt();
         this.stacks = new ArrayList<>(stacksSize);
@@ -129,6 +203,12 @@ public class MessageUpdateStacks extends MessageBase {
             stack.setCount(uncompressed.readInt());
             this.stacks.add(stack);
         }
+
+        int removedSize = uncompressed.readInt();
+        this.removedStacks = new ArrayList<>(removedSize);
+        for (int i = 0; i < removedSize; i++) {
+            this.removedStacks.add(uncompressed.readItem());
+        }
     }
 
     public void compress() {
@@ -136,25 +216,37 @@ public class MessageUpdateStacks extends MessageBase {
         compressor.setLevel(Deflater.BEST_SPEED);
 
         // Give the compressor the data to compress
-        //create buffer with reasonable size (will increase automatically as needed
-        FriendlyByteBuf uncompressed = new FriendlyByteBuf(Unpooled.buffer(DEFAULT_BUFFER_SIZE * this.stacks.size()));
-        uncompressed.writeInt(this.stacks.size());
-
-        for (ItemStack stack : this.stacks) {
-            uncompressed.writeItem(stack);
-            uncompressed.writeInt(stack.getCount());
-        }
-
-        compressor.setInput(uncompressed.array(), 0, uncompressed.readableBytes());
-        compressor.finish();
+        //create pooled buffer with reasonable size (will increase automatically as needed), it is only needed until compressed
+        FriendlyByteBuf uncompressed = new FriendlyByteBuf(ByteBufAllocator.DEFAULT.heapBuffer(
+                DEFAULT_BUFFER_SIZE + ESTIMATED_STACK_SIZE * (this.stacks.size() + this.removedStacks.size())));
+        try {
+            uncompressed.writeInt(this.stacks.size());
+
+            for (ItemStack stack : this.stacks) {
+                uncompressed.writeItem(stack);
+                uncompressed.writeInt(stack.getCount());
+            }
 
+            uncompressed.writeInt(this.removedStacks.size());
+            for (ItemStack stack : this.removedStacks) {
+                uncompressed.writeItem(stack);
+            }
 
-        this.payload = Unpooled.buffer(DEFAULT_BUFFER_SIZE);
-        // Compress the data
-        byte[] buf = new byte[1024];
-        while (!compressor.finished()) {
-            int count = compressor.deflate(buf);
-            this.payload.writeBytes(buf, 0, count);
+            //pooled buffers share their backing array, so respect the offset
+            compressor.setInput(uncompressed.array(), uncompressed.arrayOffset() + uncompressed.readerIndex(),
+                    uncompressed.readableBytes());
+            compressor.finish();
+
+            this.payload = Unpooled.buffer(DEFAULT_BUFFER_SIZE);
+            // Compress the data
+            byte[] buf = new byte[1024];
+            while (!compressor.finished()) {
+                int count = compressor.deflate(buf);
+                this.payload.writeBytes(buf, 0, count);
+            }
+        } finally {
+            compressor.end();
+            uncompressed.release();
         }
     }
     //endregion Methods
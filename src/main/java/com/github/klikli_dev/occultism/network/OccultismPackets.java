@@ -23,6 +23,7 @@
 package com.github.klikli_dev.occultism.network;
 
 import com.github.klikli_dev.occultism.Occultism;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -34,7 +35,7 @@ import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.simple.SimpleChannel;
 
 public class OccultismPackets {
-    public static final String PROTOCOL_VERSION = "1";
+    public static final String PROTOCOL_VERSION = "2";
     public static final ResourceLocation CHANNEL = new ResourceLocation(Occultism.MODID, "main");
     public static final SimpleChannel INSTANCE = NetworkRegistry.newSimpleChannel(
             CHANNEL,
@@ -253,7 +254,7 @@ public class OccultismPackets {
         }
     }
 
-    public static void addPackagePart(int communicationId, int packetIndex, byte[] payload) {
+    public static void addPackagePart(int communicationId, int packetIndex, ByteBuf payload) {
         SPLITTER.addPackagePart(communicationId, packetIndex, payload);
     }
 }
@@ -22,8 +22,11 @@
 
 package com.github.klikli_dev.occultism.network;
 
-import com.google.common.primitives.Bytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import net.minecraft.Util;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -34,14 +37,17 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class PacketSplitter {
     private final static int MAX_PACKET_SIZE = 943718;
-    private static final Map<Integer, Map<Integer, byte[]>> PACKAGE_CACHE = new HashMap<>();
+    /**
+     * Partial transfers that did not complete within this time are discarded.
+     */
+    private final static long PARTIAL_TRANSFER_TIMEOUT_MILLIS = 30000;
+    private static final Map<Integer, PartialTransfer> PACKAGE_CACHE = new HashMap<>();
 
     private final ResourceLocation channelId;
     private final SimpleChannel channel;
@@ -105,7 +111,19 @@ public class PacketSplitter {
             this.createSplittingConsumer(player).accept(msg, buffer);
         };
 
-        this.channel.registerMessage(index, messageType, wrappedEncoder, this.createPacketCombiner().andThen(decoder), messageConsumer);
+        Function<FriendlyByteBuf, FriendlyByteBuf> combiner = this.createPacketCombiner();
+        Function<FriendlyByteBuf, MSG> wrappedDecoder = (buffer) -> {
+            FriendlyByteBuf combined = combiner.apply(buffer);
+            try {
+                return decoder.apply(combined);
+            } finally {
+                //the combined buffer holds the parts received in split packets, release them
+                if (combined != buffer)
+                    combined.release();
+            }
+        };
+
+        this.channel.registerMessage(index, messageType, wrappedEncoder, wrappedDecoder, messageConsumer);
     }
 
     private <MSG> BiConsumer<MSG, FriendlyByteBuf> createSplittingConsumer(ServerPlayer playerEntity) {
@@ -115,38 +133,32 @@ public class PacketSplitter {
                 return;
             }
 
-            //read packetId for this packet
-            int packetId = buf.readUnsignedByte();
+            //packetId and the short written in case we are not splitting are not required for the final packet
+            int dataStart = 3;
+            int dataSize = buf.writerIndex() - dataStart;
+            int expectedPackets = (dataSize + MAX_PACKET_SIZE - 1) / MAX_PACKET_SIZE;
 
-            //this short is written here in case we are not splitting, ignore for split packages
-            buf.readShort();
+            if (expectedPackets < 2) {
+                //fits into a single packet after all
+                return;
+            }
 
-            //ignore the above as it is not required for the final packet
-            int currentIndex = buf.readerIndex();
-            int packetIndex = 0;
+            //read packetId for this packet
+            int packetId = buf.getUnsignedByte(0);
             final int comId = this.comId++;
 
-            //Data for this packet
-            byte[] packetData = new byte[0];
-
             int maximumPackets = this.packetMaximums.get(packetId);
-            int expectedPackets = buf.writerIndex() / MAX_PACKET_SIZE + 1;
-            boolean failure = false;
-
-            //Loop while data is available.
-            while (currentIndex < buf.writerIndex()) {
-
-                int sliceSize = Math.min(MAX_PACKET_SIZE, buf.writerIndex() - currentIndex);
-
-                //Extract the sub data array.
-                byte[] subPacketData = Arrays.copyOfRange(buf.array(), currentIndex, currentIndex + sliceSize);
-
-                if (packetIndex == 0) { // Assign Data for first Packet to this packet.
-                    packetData = subPacketData;
-                    packetIndex++;
-                } else {
-                    //Construct the split packet.
-                    var splitPacketMessage = new MessageSplitPacket(comId, packetIndex++, subPacketData);
+            boolean failure = expectedPackets > maximumPackets;
+            int lastPartStart = dataStart + (expectedPackets - 1) * MAX_PACKET_SIZE;
+
+            if (failure) {
+                LogManager.getLogger().error("Failure Splitting Packets on Channel \"" + this.channelId + "\"." + " with " + MSG.getClass() + ". " +
+                        " Number of Packets required " + expectedPackets + ", maximum number of packets for a message of this type " + maximumPackets);
+            } else {
+                //send all but the last part as split packets, these are views on the buffer and are written to the split packets directly.
+                for (int packetIndex = 0; packetIndex < expectedPackets - 1; packetIndex++) {
+                    var splitPacketMessage = new MessageSplitPacket(comId, packetIndex,
+                            buf.slice(dataStart + packetIndex * MAX_PACKET_SIZE, MAX_PACKET_SIZE));
 
                     if (playerEntity == null) {
                         this.channel.send(PacketDistributor.SERVER.noArg(), splitPacketMessage);
@@ -154,18 +166,10 @@ public class PacketSplitter {
                         this.channel.send(PacketDistributor.PLAYER.with(() -> playerEntity), splitPacketMessage);
                     }
                 }
-
-                //Move our working index.
-                currentIndex += sliceSize;
-
-                if (packetIndex > maximumPackets) {
-                    LogManager.getLogger().error("Failure Splitting Packets on Channel \"" + this.channelId + "\"." + " with " + MSG.getClass() + ". " +
-                            " Number of Packets sent " + (packetIndex - 1) + ", expected number of Packets " + expectedPackets + ", maximum number of packets for a message of this type " + this.packetMaximums.get(packetId));
-                    failure = true;
-                    break;
-                }
             }
 
+            int lastPartSize = failure ? 0 : buf.writerIndex() - lastPartStart;
+
             //start writing at the beginning
             buf.setIndex(0, 0);
 
@@ -173,12 +177,14 @@ public class PacketSplitter {
             buf.writeByte(packetId);
 
             //number of packets the packet was split into
-            buf.writeShort(failure ? expectedPackets : packetIndex);
+            buf.writeShort(expectedPackets);
             buf.writeInt(comId);
-            buf.writeByteArray(packetData);
 
-            //copies the written data into a new buffer discarding the old one
-            buf.capacity(buf.writerIndex());
+            //this packet carries the last part, moved to the front behind the header. If the last part is close to
+            //MAX_PACKET_SIZE the source and destination overlap, which is fine as the destination comes before the source
+            //and the buffer is the heap buffer created in sendPacket, which copies via System.arraycopy like memmove.
+            buf.writeVarInt(lastPartSize);
+            buf.writeBytes(buf, lastPartStart, lastPartSize);
         };
     }
 
@@ -191,37 +197,70 @@ public class PacketSplitter {
 
             int comId = buf.readInt();
 
-            Map<Integer, byte[]> partsMap = PACKAGE_CACHE.get(comId);
-            if (partsMap == null || partsMap.size() != size - 1) {
-                int partSize = partsMap == null ? 0 : partsMap.size();
+            PartialTransfer transfer;
+            synchronized (PacketSplitter.PACKAGE_CACHE) {
+                transfer = PacketSplitter.PACKAGE_CACHE.remove(comId);
+            }
+
+            if (transfer == null || transfer.parts.size() != size - 1) {
+                int partSize = transfer == null ? 0 : transfer.parts.size();
+                if (transfer != null)
+                    transfer.release();
                 int id = buf.readUnsignedByte();
                 int max = this.packetMaximums.get(id) == null ? 0 : this.packetMaximums.get(id);
                 throw new PacketSplittingException(this.channelId, partSize, size, max, id);
             }
 
             //Add data that came from this packet
-            this.addPackagePart(comId, 0, buf.readByteArray());
-
-            //Combine Cached Data
-            final byte[] packetData = partsMap.entrySet()
-                    .stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .map(Map.Entry::getValue)
-                    .reduce(new byte[0], Bytes::concat);
-
-            FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.wrappedBuffer(packetData));
+            int lastPartSize = buf.readVarInt();
+            transfer.parts.put(size - 1, buf.readRetainedSlice(lastPartSize));
 
-            //remove data from cache
-            PACKAGE_CACHE.remove(comId);
-            return buffer;
+            //Combine the parts without copying them, the parts are released together with the combined buffer
+            CompositeByteBuf combined = ByteBufAllocator.DEFAULT.compositeBuffer(size);
+            combined.addComponents(true, transfer.parts.values());
+            return new FriendlyByteBuf(combined);
         };
     }
 
-    public void addPackagePart(int communicationId, int packetIndex, byte[] payload) {
+    /**
+     * Caches a part of a split packet until the packet carrying the last part arrives.
+     *
+     * @param communicationId the communication id of the split packet.
+     * @param packetIndex     the index of the part.
+     * @param payload         the part, the cache takes ownership of the buffer.
+     */
+    public void addPackagePart(int communicationId, int packetIndex, ByteBuf payload) {
         //Sync on the message cache since this is still on the Netty thread.
         synchronized (PacketSplitter.PACKAGE_CACHE) {
-            PacketSplitter.PACKAGE_CACHE.computeIfAbsent(communicationId, (id) -> new ConcurrentHashMap<>());
-            PacketSplitter.PACKAGE_CACHE.get(communicationId).put(packetIndex, payload);
+            long now = Util.getMillis();
+            PacketSplitter.PACKAGE_CACHE.values().removeIf(transfer -> {
+                if (now - transfer.created < PARTIAL_TRANSFER_TIMEOUT_MILLIS)
+                    return false;
+                transfer.release();
+                return true;
+            });
+
+            PartialTransfer transfer = PacketSplitter.PACKAGE_CACHE.computeIfAbsent(communicationId, (id) -> new PartialTransfer(now));
+            ByteBuf previous = transfer.parts.put(packetIndex, payload);
+            if (previous != null)
+                previous.release();
+        }
+    }
+
+    /**
+     * The parts of a split packet received so far.
+     */
+    private static class PartialTransfer {
+        private final long created;
+        private final SortedMap<Integer, ByteBuf> parts = new TreeMap<>();
+
+        private PartialTransfer(long created) {
+            this.created = created;
+        }
+
+        private void release() {
+            this.parts.values().forEach(ByteBuf::release);
+            this.parts.clear();
         }
     }
 }
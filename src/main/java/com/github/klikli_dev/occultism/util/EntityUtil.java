@@ -22,10 +22,10 @@
 
 package com.github.klikli_dev.occultism.util;
 
+import com.github.klikli_dev.occultism.common.misc.EntityUuidRegistry;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
@@ -47,12 +47,10 @@ public class EntityUtil {
      * @return Optional containing the player.
      */
     public static Optional<ServerPlayer> getPlayerByUuiDGlobal(UUID uuid) {
-        for (ServerLevel level : ServerLifecycleHooks.getCurrentServer().getAllLevels()) {
-            ServerPlayer player = (ServerPlayer) level.getPlayerByUUID(uuid);
-            if (player != null)
-                return Optional.of(player);
-        }
-        return Optional.empty();
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (uuid == null || server == null)
+            return Optional.empty();
+        return Optional.ofNullable(server.getPlayerList().getPlayer(uuid));
     }
 
     /**
@@ -67,18 +65,14 @@ public class EntityUtil {
 
     /**
      * Gets the entity by given uuid. Call on server only!
+     * Resolved via {@link EntityUuidRegistry}, so only entities in loaded chunks are found.
      *
      * @param uuid the uuid of the entity
      * @return Optional containing the entity.
      */
     public static Optional<? extends Entity> getEntityByUuiDGlobal(MinecraftServer server, UUID uuid) {
-        if (uuid != null && server != null) {
-            for (ServerLevel level : server.getAllLevels()) {
-                Entity entity = level.getEntity(uuid);
-                if (entity != null)
-                    return Optional.of(entity);
-            }
-        }
+        if (uuid != null && server != null)
+            return EntityUuidRegistry.getEntity(uuid);
         return Optional.empty();
     }
 
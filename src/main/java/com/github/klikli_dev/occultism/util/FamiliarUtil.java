@@ -23,13 +23,13 @@
 package com.github.klikli_dev.occultism.util;
 
 import com.github.klikli_dev.occultism.Occultism;
+import com.github.klikli_dev.occultism.common.entity.familiar.FamiliarRegistry;
 import com.github.klikli_dev.occultism.common.entity.familiar.IFamiliar;
-import com.github.klikli_dev.occultism.common.item.tool.FamiliarRingItem;
 import com.github.klikli_dev.occultism.registry.OccultismCapabilities;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
-import top.theillusivec4.curios.api.CuriosApi;
+import net.minecraft.world.phys.AABB;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -94,10 +94,23 @@ public class FamiliarUtil {
         return familiar;
     }
 
+    @SuppressWarnings("unchecked")
     public static <T extends Entity & IFamiliar> List<T> getAllNearbyFamiliars(LivingEntity owner, EntityType<T> type,
                                                                                Predicate<T> pred) {
-        return owner.level.getEntities(type, owner.getBoundingBox().inflate(10),
-                e -> pred.test(e) && e.getFamiliarOwner() == owner && e.isAlive());
+        AABB area = owner.getBoundingBox().inflate(10);
+        if (owner.level.isClientSide)
+            return owner.level.getEntities(type, area, e -> pred.test(e) && e.getFamiliarOwner() == owner && e.isAlive());
+
+        List<T> familiars = new ArrayList<>();
+        for (Entity entity : FamiliarRegistry.getSpawnedFamiliars(owner)) {
+            if (entity.getType() != type || entity.level != owner.level || !entity.getBoundingBox().intersects(area))
+                continue;
+
+            T familiar = (T) entity;
+            if (pred.test(familiar) && familiar.getFamiliarOwner() == owner && familiar.isAlive())
+                familiars.add(familiar);
+        }
+        return familiars;
     }
 
     public static <T extends Entity & IFamiliar> T getNearbyFamiliar(LivingEntity owner, EntityType<T> type,
@@ -110,13 +123,11 @@ public class FamiliarUtil {
     public static <T extends Entity & IFamiliar> List<T> getAllEquippedFamiliars(LivingEntity owner, EntityType<T> type,
                                                                                  Predicate<T> pred) {
         List<T> familiars = new ArrayList<>();
-        var curios = CuriosApi.getCuriosHelper().getEquippedCurios(owner).orElse(null);
-        if (curios == null)
-            return familiars;
-
-        for (int i = 0; i < curios.getSlots(); i++) {
-            IFamiliar familiar = FamiliarRingItem.getFamiliar(curios.getStackInSlot(i), owner.level);
-            if (familiar != null && familiar.getFamiliarEntity().getType() == type) {
+        //the server keeps equipped familiars cached until the owner's curios change
+        List<IFamiliar> equipped = owner.level.isClientSide ?
+                FamiliarRegistry.collectEquippedFamiliars(owner) : FamiliarRegistry.getEquippedFamiliars(owner);
+        for (IFamiliar familiar : equipped) {
+            if (familiar.getFamiliarEntity().getType() == type) {
                 T fam = (T) familiar.getFamiliarEntity();
                 if (pred.test(fam))
                     familiars.add(fam);
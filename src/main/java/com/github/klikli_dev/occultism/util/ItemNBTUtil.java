@@ -27,6 +27,7 @@ import com.github.klikli_dev.occultism.api.common.data.MachineReference;
 import com.github.klikli_dev.occultism.api.common.data.WorkAreaSize;
 import com.github.klikli_dev.occultism.common.entity.job.ManageMachineJob;
 import com.github.klikli_dev.occultism.common.entity.spirit.SpiritEntity;
+import com.github.klikli_dev.occultism.common.misc.EntityUuidRegistry;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
@@ -246,7 +247,7 @@ public class ItemNBTUtil {
     }
 
     public static Optional<SpiritEntity> getSpiritEntity(ItemStack itemStack) {
-        return EntityUtil.getEntityByUuiDGlobal(getSpiritEntityUUID(itemStack)).map(e -> (SpiritEntity) e);
+        return EntityUuidRegistry.getSpirit(getSpiritEntityUUID(itemStack));
     }
     //endregion Static Methods
 
@@ -24,6 +24,8 @@ package com.github.klikli_dev.occultism.util;
 
 import com.github.klikli_dev.occultism.api.common.blockentity.IStorageController;
 import com.github.klikli_dev.occultism.api.common.container.IStorageControllerContainer;
+import com.github.klikli_dev.occultism.common.misc.ItemTagFilter;
+import com.github.klikli_dev.occultism.network.MessageUpdateStacks;
 import com.github.klikli_dev.occultism.network.OccultismPackets;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerPlayer;
@@ -39,9 +41,6 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
-import net.minecraftforge.registries.ForgeRegistries;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
 
 import java.util.function.Predicate;
 
@@ -50,6 +49,39 @@ import java.util.function.Predicate;
  */
 public class StorageUtil {
 
+    /**
+     * Sends the changes of the storage controller contents to the player. If the player has a storage controller
+     * container open only the changes since the last update are sent, otherwise all stacks.
+     *
+     * @param player            the player to update.
+     * @param storageController the storage controller to send the contents of.
+     */
+    public static void sendStackUpdate(ServerPlayer player, IStorageController storageController) {
+        if (player.containerMenu instanceof IStorageControllerContainer container) {
+            MessageUpdateStacks message = storageController.getMessageUpdateStacks(container.getSyncedStacksVersion());
+            if (message != null) {
+                OccultismPackets.sendTo(player, message);
+                container.setSyncedStacksVersion(message.getVersion());
+            }
+        } else {
+            StorageUtil.sendFullStackUpdate(player, storageController);
+        }
+    }
+
+    /**
+     * Sends all stacks of the storage controller to the player.
+     *
+     * @param player            the player to update.
+     * @param storageController the storage controller to send the contents of.
+     */
+    public static void sendFullStackUpdate(ServerPlayer player, IStorageController storageController) {
+        MessageUpdateStacks message = storageController.getMessageUpdateStacks();
+        OccultismPackets.sendTo(player, message);
+        if (player.containerMenu instanceof IStorageControllerContainer container) {
+            container.setSyncedStacksVersion(message.getVersion());
+        }
+    }
+
     /**
      * Clears the crafting matrix of the open container, if that container implements IStorageControllerContainer
      *
@@ -88,7 +120,7 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                StorageUtil.sendStackUpdate(player, storageController);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
 
@@ -129,7 +161,7 @@ public class StorageUtil {
 
             //finally if requested, send the updated storage controller contents to the player.
             if (sendStackUpdate) {
-                OccultismPackets.sendTo(player, storageController.getMessageUpdateStacks());
+                StorageUtil.sendStackUpdate(player, storageController);
                 ((AbstractContainerMenu) container).broadcastChanges();
             }
         }
@@ -196,11 +228,19 @@ public class StorageUtil {
         return getFirstMatchingSlotAfter(handler, -1, filter, tagFilter, isBlacklist);
     }
 
+    public static int getFirstMatchingSlot(IItemHandler handler, IItemHandler filter, ItemTagFilter tagFilter, boolean isBlacklist) {
+        return getFirstMatchingSlotAfter(handler, -1, filter, tagFilter, isBlacklist);
+    }
+
     public static int getFirstMatchingSlotAfter(IItemHandler handler, int slot, IItemHandler filter, String tagFilter, boolean isBlacklist) {
+        return getFirstMatchingSlotAfter(handler, slot, filter, ItemTagFilter.of(tagFilter), isBlacklist);
+    }
+
+    public static int getFirstMatchingSlotAfter(IItemHandler handler, int slot, IItemHandler filter, ItemTagFilter tagFilter, boolean isBlacklist) {
         for (int i = slot + 1; i < handler.getSlots(); i++) {
             if (!handler.getStackInSlot(i).isEmpty()) {
                 boolean matches = matchesFilter(handler.getStackInSlot(i), filter) ||
-                        matchesFilter(handler.getStackInSlot(i), tagFilter);
+                        tagFilter.matches(handler.getStackInSlot(i));
 
                 //if we're in blacklist mode, if the item matches either item or tag -> we continue into next iteration
                 //if we're in blacklist mode and none of the filters match -> we return
@@ -228,36 +268,11 @@ public class StorageUtil {
 
 
     /**
-     * Checks if stack matches the given tag filter (wildcard match)
+     * Checks if stack matches the given tag filter (wildcard match).
+     * Parses the filter on every call, prefer keeping a {@link ItemTagFilter} around for repeated checks.
      */
     public static boolean matchesFilter(ItemStack stack, String tagFilter) {
-        if (tagFilter.isEmpty())
-            return false;
-
-        String[] filters = tagFilter.split(";");
-        for (String filter : filters) {
-
-            if (filter.startsWith("item:")) {
-                filter = filter.substring(5);
-                if (FilenameUtils.wildcardMatch(ForgeRegistries.ITEMS.getKey(stack.getItem()).toString(), filter, IOCase.INSENSITIVE))
-                    return true;
-            } else {
-                //tags should not be prefixed, but we allow it and handle it
-                if (filter.startsWith("tag:")) {
-                    filter = filter.substring(4);
-                }
-                final String finalFilter = filter;
-                boolean equals = stack.getTags().anyMatch(tag -> {
-                    return FilenameUtils.wildcardMatch(tag.location().toString(), finalFilter, IOCase.INSENSITIVE);
-                });
-
-                if (equals) {
-                    return true;
-                }
-            }
-
-        }
-        return false;
+        return ItemTagFilter.of(tagFilter).matches(stack);
     }
 
     /**